@@ -1,10 +1,17 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "br.com.ryuu"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -24,4 +31,47 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// End-to-end load test against a local Discord stand-in, e.g. ./gradlew loadTest --args="--rate=500 --duration=60".
+// Reuses the payload corpus of the jmh source set.
+sourceSets {
+    create("loadtest") {
+        compileClasspath += sourceSets.main.get().output + sourceSets["jmh"].output
+        runtimeClasspath += sourceSets.main.get().output + sourceSets["jmh"].output
+    }
+}
+
+configurations["loadtestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadtestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Replays the payload corpus against /webhook and reports throughput, latency, drops and GC."
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass = "br.com.ryuu.loadtest.LoadTest"
+    workingDir = layout.buildDirectory.dir("loadtest").get().asFile
+    jvmArgs("-Xmx512m", "-XX:+UseG1GC")
+    doFirst {
+        workingDir.mkdirs()
+    }
+}
+
+// Checks the GitHub API enrichment (ETag/304 path, LRU bound, compare threshold, latency budget) against a stub.
+tasks.register<JavaExec>("pushEnricherCheck") {
+    group = "verification"
+    description = "Runs the push enricher against a local GitHub API stand-in and fails if a check does not pass."
+    classpath = sourceSets["loadtest"].runtimeClasspath
+    mainClass = "br.com.ryuu.loadtest.PushEnricherCheck"
+}
+
+jmh {
+    jmhVersion = "1.37"
+    benchmarkMode = listOf("thrpt", "avgt")
+    timeUnit = "us"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
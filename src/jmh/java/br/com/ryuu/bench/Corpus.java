@@ -0,0 +1,66 @@
+package br.com.ryuu.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Loads the GitHub payload corpus checked in under {@code src/jmh/resources/payloads}.
+ */
+public final class Corpus {
+
+    /**
+     * "star" event with the full repository and sender objects.
+     */
+    public static final String STAR = "star";
+
+    /**
+     * "fork" event carrying two complete repository objects.
+     */
+    public static final String FORK = "fork";
+
+    /**
+     * "push" event at GitHub's 20-commit payload cap.
+     */
+    public static final String PUSH = "push-20-commits";
+
+    /**
+     * "release" event whose body is a large markdown changelog.
+     */
+    public static final String RELEASE = "release-large-body";
+
+    private Corpus() {
+    }
+
+    /**
+     * Reads a payload from the corpus.
+     *
+     * @param name The payload name, one of the constants of this class.
+     * @return The raw payload bytes.
+     * @throws UncheckedIOException If the payload cannot be read.
+     */
+    public static byte[] load(String name) {
+        try (InputStream in = Corpus.class.getResourceAsStream("/payloads/" + name + ".json")) {
+            if (in == null) {
+                throw new IOException("Payload não encontrado no corpus: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the {@code X-GitHub-Event} type of a corpus payload.
+     *
+     * @param name The payload name.
+     * @return The event type.
+     */
+    public static String eventType(String name) {
+        return switch (name) {
+            case PUSH -> "push";
+            case RELEASE -> "release";
+            default -> name;
+        };
+    }
+}
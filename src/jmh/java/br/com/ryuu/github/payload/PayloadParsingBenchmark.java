@@ -0,0 +1,57 @@
+package br.com.ryuu.github.payload;
+
+import br.com.ryuu.bench.Corpus;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the streaming {@link PayloadExtractor} against the full-tree Gson parsing that
+ * {@code processWebhook} used to do, for every payload in the corpus.
+ */
+@State(Scope.Benchmark)
+public class PayloadParsingBenchmark {
+
+    @Param({Corpus.STAR, Corpus.FORK, Corpus.PUSH, Corpus.RELEASE})
+    public String payload;
+
+    private byte[] body;
+    private String eventType;
+
+    @Setup
+    public void setup() {
+        body = Corpus.load(payload);
+        eventType = Corpus.eventType(payload);
+    }
+
+    /**
+     * Baseline: decode the body into a String and build the whole {@link JsonObject} tree.
+     */
+    @Benchmark
+    public JsonObject treeParse() {
+        return JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+
+    /**
+     * Streaming extraction of only the fields the event handler reads.
+     */
+    @Benchmark
+    public Object streamingExtract() throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return switch (eventType) {
+            case "push" -> PayloadExtractor.readPush(in);
+            case "star" -> PayloadExtractor.readStar(in);
+            case "fork" -> PayloadExtractor.readFork(in);
+            case "release" -> PayloadExtractor.readRelease(in);
+            default -> throw new IllegalStateException("Evento sem extrator: " + eventType);
+        };
+    }
+}
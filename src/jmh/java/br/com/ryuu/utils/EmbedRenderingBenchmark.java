@@ -0,0 +1,72 @@
+package br.com.ryuu.utils;
+
+import br.com.ryuu.bench.Corpus;
+import br.com.ryuu.github.payload.ForkPayload;
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.github.payload.PushPayload;
+import br.com.ryuu.github.payload.ReleasePayload;
+import br.com.ryuu.github.payload.StarPayload;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Measures each {@link DiscordEmbedBuilder} factory method and {@code truncateMessage} with fields taken
+ * from the payload corpus.
+ */
+@State(Scope.Benchmark)
+public class EmbedRenderingBenchmark {
+
+    private PushPayload push;
+    private StarPayload star;
+    private ForkPayload fork;
+    private ReleasePayload release;
+    private String multiLineCommitMessage;
+
+    @Setup
+    public void setup() throws IOException {
+        push = PayloadExtractor.readPush(new ByteArrayInputStream(Corpus.load(Corpus.PUSH)));
+        star = PayloadExtractor.readStar(new ByteArrayInputStream(Corpus.load(Corpus.STAR)));
+        fork = PayloadExtractor.readFork(new ByteArrayInputStream(Corpus.load(Corpus.FORK)));
+        release = PayloadExtractor.readRelease(new ByteArrayInputStream(Corpus.load(Corpus.RELEASE)));
+        multiLineCommitMessage = push.commits().get(1).getMessage();
+    }
+
+    @Benchmark
+    public MessageEmbed pushEmbed() {
+        return DiscordEmbedBuilder.createPushEmbed(push.pusher(), push.commits(), push.repoName(),
+                push.branch(), push.compareUrl());
+    }
+
+    @Benchmark
+    public MessageEmbed starEmbed() {
+        return DiscordEmbedBuilder.createStarEmbed(star.user(), star.repoName(), star.repoUrl(), star.totalStars());
+    }
+
+    @Benchmark
+    public MessageEmbed forkEmbed() {
+        return DiscordEmbedBuilder.createForkEmbed(fork.user(), fork.originalRepo(), fork.forkUrl(),
+                fork.forkName(), fork.totalForks());
+    }
+
+    @Benchmark
+    public MessageEmbed releaseEmbed() {
+        return DiscordEmbedBuilder.createReleaseEmbed(release.repoName(), release.tagName(), release.authorName(),
+                release.releaseUrl(), release.description(), release.isPreRelease());
+    }
+
+    @Benchmark
+    public String truncateCommitMessage() {
+        return DiscordEmbedBuilder.truncateMessage(multiLineCommitMessage);
+    }
+
+    @Benchmark
+    public String truncateReleaseBody() {
+        return DiscordEmbedBuilder.truncateMessage(release.description());
+    }
+}
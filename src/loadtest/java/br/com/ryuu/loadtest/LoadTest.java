@@ -0,0 +1,417 @@
+package br.com.ryuu.loadtest;
+
+import br.com.ryuu.bench.Corpus;
+import br.com.ryuu.config.Config;
+import br.com.ryuu.github.WebhookHandler;
+import br.com.ryuu.routing.RoutingTable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: replays the payload corpus against {@code /webhook} and measures how long each
+ * delivery takes to reach Discord.
+ * <p>
+ * The bot runs in this JVM with its real endpoint, queue, handlers, routing, rendering and dispatcher; only
+ * JDA is replaced, by a {@link RestDiscordGateway} pointed at a {@link StubDiscordServer} that simulates
+ * latency and 429 answers. Deliveries are signed and carry unique delivery ids. They are sent open-loop at a
+ * fixed rate and latency is measured from each delivery's scheduled send time, so a stalled server shows up
+ * as latency instead of silently slowing the generator down.
+ * <p>
+ * Options are passed as {@code --name=value}: {@code --rate}, {@code --concurrency}, {@code --warmup} and
+ * {@code --duration} in seconds, {@code --channels}, {@code --events} (corpus payload names), the
+ * {@code --stub-*} settings of the {@link StubDiscordServer} and {@code --drain-seconds}. Arguments of the
+ * form {@code KEY=VALUE} are added to the generated .env file, e.g. {@code WEBHOOK_WORKERS=8}. The .env and
+ * routes files are written to the working directory, which must not hold a .env file of its own.
+ * <p>
+ * The results are printed and written to {@code --output} (default {@code loadtest-result.json}). The process
+ * exits with status 1 when a threshold given by {@code --max-p99-ms}, {@code --max-drop-ratio} or
+ * {@code --min-throughput} is missed, so the run can gate a release.
+ * <p>
+ * The results also carry the ingress footprint: {@code startupMs} (constructing the handler and opening the
+ * endpoint), {@code startupHeapMb} and {@code startupThreads} right after a GC once it is open, and
+ * {@code peakThreads} under load. Running once with {@code INGRESS_SERVER=jdk} and once with
+ * {@code INGRESS_SERVER=spark} compares the two servers on the same workload.
+ */
+public final class LoadTest {
+    private static final String ENV_HEADER = "# Gerado pelo load test, sobrescrito a cada execução";
+    private static final String ROUTES_FILE = "loadtest-routes.conf";
+    private static final String SECRET = "loadtest-secret";
+    private static final long FIRST_CHANNEL_ID = 1000;
+
+    private final Map<String, String> options;
+    private final Map<String, String> env;
+    private final int rate;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int channels;
+    private final long total;
+    private final long warmupCount;
+    private final long intervalNanos;
+
+    private final AtomicLongArray deliveredAt;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder notSent = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final AtomicLong peakThreads = new AtomicLong();
+    private long startupNanos;
+    private long startupHeapBytes;
+    private int startupThreads;
+    private long startNanos;
+
+    private LoadTest(Map<String, String> options, Map<String, String> env) {
+        this.options = options;
+        this.env = env;
+        this.rate = intOption("rate", 200);
+        this.warmupSeconds = intOption("warmup", 5);
+        this.durationSeconds = intOption("duration", 30);
+        this.channels = intOption("channels", 100);
+        if (rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0 || channels <= 0) {
+            throw new IllegalArgumentException("--rate, --duration e --channels devem ser positivos");
+        }
+        this.total = (long) rate * (warmupSeconds + durationSeconds);
+        this.warmupCount = (long) rate * warmupSeconds;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        this.deliveredAt = new AtomicLongArray(Math.toIntExact(total));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> env = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 2) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (equals > 0) {
+                env.put(arg.substring(0, equals), arg.substring(equals + 1));
+            } else {
+                throw new IllegalArgumentException("Argumento inválido: " + arg);
+            }
+        }
+
+        System.exit(new LoadTest(options, env).run());
+    }
+
+    private int run() throws Exception {
+        try (StubDiscordServer discord = new StubDiscordServer(
+                intOption("stub-latency-ms", 50),
+                intOption("stub-jitter-ms", 50),
+                Double.parseDouble(options.getOrDefault("stub-429-ratio", "0.01")),
+                intOption("stub-bucket-limit", 5),
+                intOption("stub-bucket-window-ms", 5000),
+                this::onDelivered)) {
+
+            int port = writeConfiguration();
+            long constructStart = System.nanoTime();
+            WebhookHandler handler = new WebhookHandler(new RestDiscordGateway(discord.getBaseUri(), "loadtest"),
+                    null, null, RoutingTable.fromConfig(Config.current()));
+            startupNanos = System.nanoTime() - constructStart;
+            try {
+                // Footprint of the idle bot with its endpoint open, before any traffic
+                System.gc();
+                startupHeapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+                startupThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+                handler.onDiscordReady();
+
+                System.out.printf(Locale.ROOT, "Enviando %d entregas a %d/s (%ds de aquecimento) para %d canal(is)%n",
+                        total, rate, warmupSeconds, channels);
+
+                ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+                MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                sampler.scheduleAtFixedRate(() -> {
+                    peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                }, 0, 100, TimeUnit.MILLISECONDS);
+
+                long[] gcBefore = new long[2];
+                generate(URI.create("http://127.0.0.1:" + port + "/webhook"), gcBefore);
+                long sendEndNanos = System.nanoTime();
+
+                // Wait for every answer and every accepted delivery to reach Discord, or give up after the
+                // drain timeout
+                long offered = total - warmupCount;
+                long drainDeadline = sendEndNanos + TimeUnit.SECONDS.toNanos(intOption("drain-seconds", 60));
+                while ((accepted.sum() + rejected.sum() + failed.sum() + notSent.sum() < offered
+                        || delivered.sum() < accepted.sum()) && System.nanoTime() < drainDeadline) {
+                    Thread.sleep(50);
+                }
+                long endNanos = System.nanoTime();
+                long[] gcAfter = gcTotals();
+                sampler.shutdownNow();
+
+                return report(discord, handler, endNanos, gcBefore, gcAfter);
+            } finally {
+                handler.getIngressServer().stop();
+            }
+        }
+    }
+
+    /**
+     * Writes the .env and routes files the bot reads on startup; must run before {@link Config} is first used.
+     *
+     * @return The port the webhook endpoint will listen on.
+     */
+    private int writeConfiguration() throws IOException {
+        Path envFile = Path.of(".env");
+        if (Files.exists(envFile) && !Files.readString(envFile).startsWith(ENV_HEADER)) {
+            throw new IllegalStateException("Já existe um .env em " + envFile.toAbsolutePath()
+                    + "; execute o load test em outro diretório");
+        }
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("PORT", String.valueOf(port));
+        values.put("WEBHOOK_SECRET", SECRET);
+        values.put("ROUTES_FILE", ROUTES_FILE);
+        values.put("CONFIG_WATCH", "false");
+        values.putAll(env);
+
+        StringBuilder content = new StringBuilder(ENV_HEADER).append('\n');
+        values.forEach((key, value) -> content.append(key).append('=').append(value).append('\n'));
+        Files.writeString(envFile, content);
+
+        StringBuilder routes = new StringBuilder();
+        for (int i = 0; i < channels; i++) {
+            routes.append(PayloadTemplate.REPO_PREFIX).append(i).append(" * * ").append(FIRST_CHANNEL_ID + i)
+                    .append('\n');
+        }
+        Files.writeString(Path.of(ROUTES_FILE), routes);
+        return port;
+    }
+
+    /**
+     * Sends every delivery at its scheduled time. A delivery whose turn comes while {@code --concurrency}
+     * requests are already in flight is not sent and counted as such.
+     *
+     * @param gcBefore Receives the GC totals at the end of the warmup.
+     */
+    private void generate(URI endpoint, long[] gcBefore) throws GeneralSecurityException {
+        List<PayloadTemplate> templates = Arrays.stream(
+                        options.getOrDefault("events", String.join(",", Corpus.PUSH, Corpus.STAR, Corpus.FORK,
+                                Corpus.RELEASE)).split(","))
+                .map(String::trim)
+                .map(PayloadTemplate::new)
+                .toList();
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Semaphore inFlight = new Semaphore(intOption("concurrency", 64));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+
+        startNanos = System.nanoTime();
+        for (long sequence = 0; sequence < total; sequence++) {
+            if (sequence == warmupCount) {
+                long[] totals = gcTotals();
+                gcBefore[0] = totals[0];
+                gcBefore[1] = totals[1];
+            }
+            long delay = startNanos + sequence * intervalNanos - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            PayloadTemplate template = templates.get((int) (sequence % templates.size()));
+            byte[] body = template.render(sequence, (int) (sequence % channels));
+            if (!inFlight.tryAcquire()) {
+                count(sequence, notSent);
+                continue;
+            }
+
+            long current = sequence;
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .header("Content-Type", "application/json")
+                    .header("X-GitHub-Event", template.getEventType())
+                    .header("X-GitHub-Delivery", "loadtest-" + startNanos + "-" + sequence)
+                    .header("X-Hub-Signature-256", "sha256=" + HexFormat.of().formatHex(mac.doFinal(body)))
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    count(current, failed);
+                } else if (response.statusCode() == 202) {
+                    count(current, accepted);
+                } else if (response.statusCode() == 503) {
+                    count(current, rejected);
+                } else {
+                    count(current, failed);
+                }
+            });
+        }
+    }
+
+    private void count(long sequence, LongAdder counter) {
+        if (sequence >= warmupCount) {
+            counter.increment();
+        }
+    }
+
+    private void onDelivered(long sequence) {
+        if (sequence < 0 || sequence >= total) {
+            return;
+        }
+        if (deliveredAt.compareAndSet((int) sequence, 0, System.nanoTime())) {
+            count(sequence, delivered);
+        } else {
+            count(sequence, duplicates);
+        }
+    }
+
+    private int report(StubDiscordServer discord, WebhookHandler handler, long endNanos, long[] gcBefore,
+                       long[] gcAfter) throws IOException {
+        long measuredStart = startNanos + warmupCount * intervalNanos;
+        long[] latencies = new long[Math.toIntExact(delivered.sum())];
+        int n = 0;
+        for (int i = (int) warmupCount; i < total && n < latencies.length; i++) {
+            long at = deliveredAt.get(i);
+            if (at != 0) {
+                latencies[n++] = at - (startNanos + i * intervalNanos);
+            }
+        }
+        latencies = Arrays.copyOf(latencies, n);
+        Arrays.sort(latencies);
+
+        long offered = total - warmupCount;
+        long lost = Math.max(0, accepted.sum() - delivered.sum());
+        long dropped = rejected.sum() + failed.sum() + notSent.sum() + lost;
+        double seconds = (endNanos - measuredStart) / 1e9;
+        double throughput = delivered.sum() / seconds;
+        double dropRatio = (double) dropped / offered;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("offered", offered);
+        result.put("offeredRate", rate);
+        result.put("accepted", accepted.sum());
+        result.put("delivered", delivered.sum());
+        result.put("throughputPerSecond", round(throughput));
+        result.put("latencyP50Ms", millis(percentile(latencies, 0.50)));
+        result.put("latencyP99Ms", millis(percentile(latencies, 0.99)));
+        result.put("latencyP999Ms", millis(percentile(latencies, 0.999)));
+        result.put("latencyMaxMs", millis(latencies.length > 0 ? latencies[latencies.length - 1] : 0));
+        result.put("rejected", rejected.sum());
+        result.put("failed", failed.sum());
+        result.put("notSent", notSent.sum());
+        result.put("lost", lost);
+        result.put("duplicates", duplicates.sum());
+        result.put("dropRatio", round(dropRatio));
+        result.put("discordRequests", discord.getRequestCount());
+        result.put("discordMessages", discord.getMessageCount());
+        result.put("discord429", discord.getRateLimitedCount());
+        result.put("discordRetries", handler.getDispatcher().getRetryCount());
+        result.put("startupMs", millis(startupNanos));
+        result.put("startupHeapMb", round(startupHeapBytes / (1024.0 * 1024.0)));
+        result.put("startupThreads", startupThreads);
+        result.put("peakHeapMb", round(peakHeapBytes.get() / (1024.0 * 1024.0)));
+        result.put("peakThreads", peakThreads.get());
+        result.put("gcCount", gcAfter[0] - gcBefore[0]);
+        result.put("gcTimeMs", gcAfter[1] - gcBefore[1]);
+
+        System.out.println();
+        System.out.println("Resultado do load test");
+        result.forEach((key, value) -> System.out.printf(Locale.ROOT, "  %-20s %s%n", key, value));
+
+        StringBuilder json = new StringBuilder("{");
+        result.forEach((key, value) -> json.append(json.length() > 1 ? "," : "")
+                .append('"').append(key).append("\":").append(value));
+        Files.writeString(Path.of(options.getOrDefault("output", "loadtest-result.json")), json.append("}\n"));
+
+        boolean passed = true;
+        if (options.containsKey("max-p99-ms")
+                && millis(percentile(latencies, 0.99)) > Double.parseDouble(options.get("max-p99-ms"))) {
+            System.err.println("FALHA: p99 acima de " + options.get("max-p99-ms") + " ms");
+            passed = false;
+        }
+        if (options.containsKey("max-drop-ratio") && dropRatio > Double.parseDouble(options.get("max-drop-ratio"))) {
+            System.err.println("FALHA: taxa de perdas acima de " + options.get("max-drop-ratio"));
+            passed = false;
+        }
+        if (options.containsKey("min-throughput")
+                && throughput < Double.parseDouble(options.get("min-throughput"))) {
+            System.err.println("FALHA: vazão abaixo de " + options.get("min-throughput") + "/s");
+            passed = false;
+        }
+        return passed ? 0 : 1;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * Sums the collection counters of every garbage collector.
+     *
+     * @return The total number of collections and the total collection time in milliseconds.
+     */
+    private static long[] gcTotals() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para --" + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.ryuu.loadtest;
+
+import br.com.ryuu.bench.Corpus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A corpus payload prepared for replay with a unique marker per delivery.
+ * <p>
+ * The corpus user ({@code "octodev"}) appears in every embed the bot renders, so it is replaced by a
+ * marker carrying the delivery's sequence number; the stub server reads it back to match each Discord
+ * message to the delivery that caused it. The repository name gets a numeric suffix so deliveries can be
+ * spread over several routed channels. The payload is split once at those strings, so building a body is
+ * only a few array copies.
+ */
+final class PayloadTemplate {
+    static final String MARKER_PREFIX = "loadtest-";
+    static final String REPO_PREFIX = "ryuu-labs/Ryuu-Bot-";
+
+    private static final String USER = "\"octodev\"";
+    private static final String REPO = "\"ryuu-labs/Ryuu-Bot\"";
+
+    private final String eventType;
+    private final List<byte[]> parts = new ArrayList<>();
+    private final List<Boolean> userSlots = new ArrayList<>();
+    private int length;
+
+    /**
+     * Prepares a corpus payload.
+     *
+     * @param name The payload name, one of the {@link Corpus} constants.
+     */
+    PayloadTemplate(String name) {
+        this.eventType = Corpus.eventType(name);
+        String json = new String(Corpus.load(name), StandardCharsets.UTF_8);
+
+        int start = 0;
+        while (true) {
+            int user = json.indexOf(USER, start);
+            int repo = json.indexOf(REPO, start);
+            if (user < 0 && repo < 0) {
+                break;
+            }
+            boolean isUser = repo < 0 || user >= 0 && user < repo;
+            int at = isUser ? user : repo;
+            parts.add(json.substring(start, at).getBytes(StandardCharsets.UTF_8));
+            userSlots.add(isUser);
+            start = at + (isUser ? USER : REPO).length();
+        }
+        parts.add(json.substring(start).getBytes(StandardCharsets.UTF_8));
+        parts.forEach(part -> length += part.length);
+    }
+
+    /**
+     * Returns the event the payload belongs to, sent as its {@code X-GitHub-Event} header.
+     *
+     * @return The event type of the payload.
+     */
+    String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Builds the body of one delivery.
+     *
+     * @param sequence  The delivery's sequence number.
+     * @param repoIndex The suffix of the repository name.
+     * @return The payload bytes.
+     */
+    byte[] render(long sequence, int repoIndex) {
+        byte[] user = ("\"" + MARKER_PREFIX + sequence + "\"").getBytes(StandardCharsets.UTF_8);
+        byte[] repo = ("\"" + REPO_PREFIX + repoIndex + "\"").getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 64 * userSlots.size());
+        for (int i = 0; i < userSlots.size(); i++) {
+            out.writeBytes(parts.get(i));
+            out.writeBytes(userSlots.get(i) ? user : repo);
+        }
+        out.writeBytes(parts.get(parts.size() - 1));
+        return out.toByteArray();
+    }
+}
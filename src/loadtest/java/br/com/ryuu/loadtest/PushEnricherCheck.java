@@ -0,0 +1,142 @@
+package br.com.ryuu.loadtest;
+
+import br.com.ryuu.github.api.GitHubApiClient;
+import br.com.ryuu.github.api.PushDetails;
+import br.com.ryuu.github.api.PushEnricher;
+import br.com.ryuu.github.payload.PushPayload;
+import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the GitHub API enrichment stage against a {@link StubGitHubServer}.
+ * <p>
+ * It verifies that a repeated request is sent conditionally and answered from the cache on {@code 304}, that
+ * the response cache evicts its least recently used entry once it is full, that a push whose payload lists
+ * every commit is not compared while a possibly truncated one is, and that a slow API cannot hold a push back
+ * for longer than the enrichment budget. Every check is printed; the process exits with status 1 if any fails.
+ */
+public final class PushEnricherCheck {
+    private static final String REPO = "ryuu/check";
+    private static final String BEFORE = "1111111111111111111111111111111111111111";
+    private static final String AFTER = "2222222222222222222222222222222222222222";
+    private static final GitHubApiClient.BodyParser<String> TEXT =
+            body -> new String(body.readAllBytes(), StandardCharsets.UTF_8);
+
+    private final StubGitHubServer stub;
+    private int failures;
+
+    private PushEnricherCheck(StubGitHubServer stub) {
+        this.stub = stub;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int failures;
+        try (StubGitHubServer stub = new StubGitHubServer()) {
+            PushEnricherCheck check = new PushEnricherCheck(stub);
+            check.conditionalRequests();
+            check.cacheBound();
+            check.compareThreshold();
+            check.budget();
+            failures = check.failures;
+        }
+        System.out.println(failures == 0 ? "Todas as verificações passaram" : failures + " verificação(ões) falharam");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**
+     * A second request for the same path carries the ETag and returns the cached value on {@code 304}.
+     */
+    private void conditionalRequests() throws Exception {
+        GitHubApiClient client = client(10);
+        String path = "/repos/" + REPO + "/etag";
+        String first = client.get(path, TEXT).get(5, TimeUnit.SECONDS);
+        long notModified = stub.getNotModifiedCount();
+        String second = client.get(path, TEXT).get(5, TimeUnit.SECONDS);
+
+        expect("304 devolve o valor em cache", first.equals(second)
+                && stub.getConditionalCount(path) == 1
+                && stub.getNotModifiedCount() == notModified + 1);
+    }
+
+    /**
+     * With room for two responses, the least recently used one is evicted by a third.
+     */
+    private void cacheBound() throws Exception {
+        GitHubApiClient client = client(2);
+        String a = "/repos/" + REPO + "/lru/a";
+        String b = "/repos/" + REPO + "/lru/b";
+        String c = "/repos/" + REPO + "/lru/c";
+        client.get(a, TEXT).get(5, TimeUnit.SECONDS);
+        client.get(b, TEXT).get(5, TimeUnit.SECONDS);
+        client.get(c, TEXT).get(5, TimeUnit.SECONDS);
+        client.get(c, TEXT).get(5, TimeUnit.SECONDS);
+        client.get(a, TEXT).get(5, TimeUnit.SECONDS);
+
+        expect("cache LRU limitado a 2 entradas", stub.getConditionalCount(c) == 1
+                && stub.getConditionalCount(a) == 0);
+    }
+
+    /**
+     * A push below the threshold only asks for its pull request; a push at the webhook's commit limit is compared.
+     */
+    private void compareThreshold() throws Exception {
+        PushEnricher enricher = new PushEnricher(client(10), 2000);
+        long compares = stub.getRequestCountContaining("/compare/");
+        long pulls = stub.getRequestCountContaining("/pulls");
+
+        enricher.enrich(push("refs/heads/main", 3)).get(5, TimeUnit.SECONDS);
+        expect("push pequeno não consulta /compare", stub.getRequestCountContaining("/compare/") == compares
+                && stub.getRequestCountContaining("/pulls") == pulls + 1);
+
+        enricher.enrich(push("refs/heads/main", PushEnricher.WEBHOOK_COMMIT_LIMIT)).get(5, TimeUnit.SECONDS);
+        expect("push truncado consulta /compare", stub.getRequestCountContaining("/compare/") == compares + 1);
+
+        enricher.enrich(push("refs/tags/v1.0", 1)).get(5, TimeUnit.SECONDS);
+        expect("tag não consulta /pulls", stub.getRequestCountContaining("/pulls") == pulls + 2);
+    }
+
+    /**
+     * An API slower than the budget leaves the details out instead of delaying the push.
+     */
+    private void budget() throws Exception {
+        long budgetMillis = 300;
+        PushEnricher enricher = new PushEnricher(client(10), budgetMillis);
+        stub.setLatencyMillis(2000);
+        try {
+            long start = System.nanoTime();
+            PushDetails details = enricher.enrich(push("refs/heads/budget", PushEnricher.WEBHOOK_COMMIT_LIMIT))
+                    .get(5, TimeUnit.SECONDS);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.println("  enriquecimento com API lenta levou " + elapsedMillis + " ms");
+            expect("orçamento de " + budgetMillis + " ms respeitado", elapsedMillis < budgetMillis + 500
+                    && details.totalCommits() == -1 && details.pullRequestNumber() == 0);
+        } finally {
+            stub.setLatencyMillis(0);
+        }
+    }
+
+    private GitHubApiClient client(int cacheEntries) {
+        return new GitHubApiClient(stub.getBaseUri(), null, cacheEntries, Duration.ofSeconds(5));
+    }
+
+    private static PushPayload push(String ref, int commitCount) {
+        List<CommitInfo> commits = new ArrayList<>(commitCount);
+        for (int i = 0; i < commitCount; i++) {
+            commits.add(new CommitInfo(Integer.toHexString(i), "Commit " + i, null));
+        }
+        return new PushPayload(REPO, "https://github.com/" + REPO, "check", ref, BEFORE, AFTER, null, commits);
+    }
+
+    private void expect(String name, boolean passed) {
+        System.out.println((passed ? "[OK]     " : "[FALHOU] ") + name);
+        if (!passed) {
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.ryuu.loadtest;
+
+import br.com.ryuu.discord.DiscordGateway;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link DiscordGateway} that calls the message endpoints of Discord's REST API directly.
+ * <p>
+ * JDA cannot log in without a live websocket gateway, so the load test uses this gateway against the
+ * {@link StubDiscordServer} instead. A 429 answer fails the send like any other error and is left to the
+ * {@link br.com.ryuu.discord.DiscordDispatcher}'s backoff.
+ */
+final class RestDiscordGateway implements DiscordGateway {
+    private final URI baseUri;
+    private final String authorization;
+    private final HttpClient client;
+
+    /**
+     * Constructs a new instance of the {@code RestDiscordGateway} class.
+     *
+     * @param baseUri The base URI of the API, ending with a slash.
+     * @param token   The bot token sent in the {@code Authorization} header.
+     */
+    RestDiscordGateway(URI baseUri, String token) {
+        this.baseUri = baseUri;
+        this.authorization = "Bot " + token;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Long> send(long channelId, List<MessageEmbed> embeds) {
+        return request("POST", baseUri.resolve("channels/" + channelId + "/messages"), embeds);
+    }
+
+    @Override
+    public CompletableFuture<Long> edit(long channelId, long messageId, List<MessageEmbed> embeds) {
+        return request("PATCH", baseUri.resolve("channels/" + channelId + "/messages/" + messageId), embeds);
+    }
+
+    private CompletableFuture<Long> request(String method, URI uri, List<MessageEmbed> embeds) {
+        DataArray array = DataArray.empty();
+        for (MessageEmbed embed : embeds) {
+            array.add(embed.toData());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(
+                        DataObject.empty().put("embeds", array).toJson()))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() == 429) {
+                throw new IllegalStateException("Rate limit do Discord, retry after "
+                        + response.headers().firstValue("Retry-After").orElse("?") + "s");
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Discord respondeu " + response.statusCode());
+            }
+            return DataObject.fromJson(response.body()).getLong("id");
+        });
+    }
+}
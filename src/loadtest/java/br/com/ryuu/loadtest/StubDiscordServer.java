@@ -0,0 +1,179 @@
+package br.com.ryuu.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the message endpoints of Discord's REST API.
+ * <p>
+ * {@code POST /api/v10/channels/{id}/messages} and {@code PATCH /api/v10/channels/{id}/messages/{id}} are
+ * answered after a simulated latency. Each channel has a fixed-window rate limit like Discord's per-route
+ * buckets, and a configurable share of the remaining requests is answered 429 at random, so the bot's
+ * pacing and retry paths are exercised. Every load test marker found in an accepted message is reported.
+ */
+final class StubDiscordServer implements AutoCloseable {
+    private static final Pattern PATH = Pattern.compile("/api/v10/channels/(\\d+)/messages(?:/(\\d+))?");
+    private static final Pattern MARKER = Pattern.compile(PayloadTemplate.MARKER_PREFIX + "(\\d+)");
+
+    private final class Bucket {
+        private long windowStart;
+        private int used;
+
+        synchronized long tryTake(long now) {
+            if (now - windowStart >= bucketWindowMillis) {
+                windowStart = now;
+                used = 0;
+            }
+            if (used < bucketLimit) {
+                used++;
+                return 0;
+            }
+            return windowStart + bucketWindowMillis - now;
+        }
+    }
+
+    private final HttpServer server;
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final double rateLimitRatio;
+    private final int bucketLimit;
+    private final long bucketWindowMillis;
+    private final LongConsumer onDelivered;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextMessageId = new AtomicLong(1_000_000);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+
+    /**
+     * Starts the stub server on an ephemeral loopback port.
+     *
+     * @param latencyMillis      The base latency of every answer.
+     * @param jitterMillis       The maximum random latency added on top of the base.
+     * @param rateLimitRatio     The share of requests within the bucket answered 429 anyway, from 0 to 1.
+     * @param bucketLimit        The number of requests each channel accepts per window.
+     * @param bucketWindowMillis The length of a channel's rate limit window.
+     * @param onDelivered        Called with the sequence number of every marker in an accepted message.
+     * @throws IOException If the server socket cannot be opened.
+     */
+    StubDiscordServer(int latencyMillis, int jitterMillis, double rateLimitRatio, int bucketLimit,
+                      long bucketWindowMillis, LongConsumer onDelivered) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.rateLimitRatio = rateLimitRatio;
+        this.bucketLimit = bucketLimit;
+        this.bucketWindowMillis = bucketWindowMillis;
+        this.onDelivered = onDelivered;
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/v10/channels/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the root the {@link RestDiscordGateway} sends its requests to.
+     *
+     * @return The base URI of the API, ending with a slash.
+     */
+    URI getBaseUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+                + "/api/v10/");
+    }
+
+    long getRequestCount() {
+        return requests.sum();
+    }
+
+    long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    long getMessageCount() {
+        return messages.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            Matcher path = PATH.matcher(exchange.getRequestURI().getPath());
+            String method = exchange.getRequestMethod();
+            boolean valid = path.matches() && (method.equals("POST") && path.group(2) == null
+                    || method.equals("PATCH") && path.group(2) != null);
+            if (!valid) {
+                respond(exchange, 404, "{\"message\":\"Unknown route\",\"code\":0}");
+                return;
+            }
+
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            sleep(latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextInt(jitterMillis + 1) : 0));
+
+            long channelId = Long.parseLong(path.group(1));
+            long retryAfter = buckets.computeIfAbsent(channelId, id -> new Bucket())
+                    .tryTake(System.currentTimeMillis());
+            if (retryAfter == 0 && ThreadLocalRandom.current().nextDouble() < rateLimitRatio) {
+                retryAfter = 1000;
+            }
+            if (retryAfter > 0) {
+                rateLimited.increment();
+                String seconds = String.valueOf(retryAfter / 1000.0);
+                exchange.getResponseHeaders().set("Retry-After", seconds);
+                exchange.getResponseHeaders().set("X-RateLimit-Scope", "user");
+                respond(exchange, 429, "{\"message\":\"You are being rate limited.\",\"retry_after\":" + seconds
+                        + ",\"global\":false}");
+                return;
+            }
+
+            messages.increment();
+            Matcher marker = MARKER.matcher(new String(body, StandardCharsets.UTF_8));
+            while (marker.find()) {
+                onDelivered.accept(Long.parseLong(marker.group(1)));
+            }
+
+            long messageId = path.group(2) != null ? Long.parseLong(path.group(2)) : nextMessageId.incrementAndGet();
+            respond(exchange, 200, "{\"id\":\"" + messageId + "\",\"channel_id\":\"" + channelId + "\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,157 @@
+package br.com.ryuu.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the GitHub REST API endpoints the push enricher calls.
+ * <p>
+ * Every path under {@code /repos/} is answered after a configurable latency with a fixed ETag derived from the
+ * path. A request whose {@code If-None-Match} matches it is answered {@code 304} without a body, like GitHub
+ * does. {@code /compare/} paths return an empty comparison, {@code /pulls} paths an empty array and any other
+ * path an empty object. Requests are counted per path, together with the conditional ones among them.
+ */
+final class StubGitHubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> conditional = new ConcurrentHashMap<>();
+    private final LongAdder notModified = new LongAdder();
+    private volatile int latencyMillis;
+
+    /**
+     * Starts the stub server on an ephemeral loopback port.
+     *
+     * @throws IOException If the server socket cannot be opened.
+     */
+    StubGitHubServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/repos/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the root the {@code GitHubApiClient} sends its requests to.
+     *
+     * @return The base URI of the API.
+     */
+    URI getBaseUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Sets the latency of every following answer.
+     *
+     * @param latencyMillis The time to wait before answering.
+     */
+    void setLatencyMillis(int latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Returns how many requests were made for a path.
+     *
+     * @param path The request path.
+     * @return The number of requests, conditional or not.
+     */
+    long getRequestCount(String path) {
+        LongAdder count = requests.get(path);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Returns how many requests for a path carried an {@code If-None-Match} header.
+     *
+     * @param path The request path.
+     * @return The number of conditional requests.
+     */
+    long getConditionalCount(String path) {
+        LongAdder count = conditional.get(path);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Returns how many paths containing a fragment were requested, e.g. {@code "/compare/"}.
+     *
+     * @param fragment The fragment to look for.
+     * @return The number of requests whose path contains it.
+     */
+    long getRequestCountContaining(String fragment) {
+        return requests.entrySet().stream()
+                .filter(entry -> entry.getKey().contains(fragment))
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    /**
+     * Returns how many requests were answered {@code 304 Not Modified}.
+     *
+     * @return The number of {@code 304} answers.
+     */
+    long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            requests.computeIfAbsent(path, key -> new LongAdder()).increment();
+            sleep(latencyMillis);
+
+            String etag = "\"" + Integer.toHexString(path.hashCode()) + "\"";
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null) {
+                conditional.computeIfAbsent(path, key -> new LongAdder()).increment();
+                if (ifNoneMatch.equals(etag)) {
+                    notModified.increment();
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+
+            String json;
+            if (path.contains("/compare/")) {
+                json = "{\"total_commits\":0,\"commits\":[],\"files\":[]}";
+            } else if (path.endsWith("/pulls")) {
+                json = "[]";
+            } else {
+                json = "{}";
+            }
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
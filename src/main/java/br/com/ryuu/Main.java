@@ -1,28 +1,215 @@
 package br.com.ryuu;
 
 import br.com.ryuu.config.Config;
+import br.com.ryuu.config.ConfigSnapshot;
+import br.com.ryuu.config.ConfigWatcher;
+import br.com.ryuu.discord.DeadLetterStore;
+import br.com.ryuu.discord.JdaGateway;
+import br.com.ryuu.github.DeliveryJournal;
 import br.com.ryuu.github.WebhookHandler;
+import br.com.ryuu.routing.RoutingTable;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
-import net.dv8tion.jda.api.utils.ChunkingFilter;
-import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
 
 public class Main {
     private final JDA jda;
+    private final ShardManager shardManager;
 
     public Main() throws Exception {
-        jda = JDABuilder.createDefault(Config.getDiscordToken())
-                .setMemberCachePolicy(MemberCachePolicy.NONE)
-                .setChunkingFilter(ChunkingFilter.NONE)
-                .enableIntents(GatewayIntent.GUILD_MESSAGES,
-                        GatewayIntent.MESSAGE_CONTENT)
-                .build();
+        DeliveryJournal journal = openJournal();
+
+        // Sending embeds needs no gateway events beyond the guild and channel cache JDA always receives
+        String token = Config.getDiscordToken();
+        EnumSet<GatewayIntent> intents = EnumSet.noneOf(GatewayIntent.class);
+
+        WebhookHandler handler;
+        if (Boolean.parseBoolean(Config.get("DISCORD_SHARDING", "false"))) {
+            // build() only queues the shard logins; they connect in the background
+            jda = null;
+            shardManager = buildShardManager(token, intents);
+            handler = new WebhookHandler(new JdaGateway(shardManager), journal, openDeadLetterStore(),
+                    loadRoutingTable());
+            shardManager.addEventListener(new ListenerAdapter() {
+                @Override
+                public void onReady(ReadyEvent event) {
+                    System.out.println("Shard " + event.getJDA().getShardInfo().getShardId() + " está online!");
+                    if (allShardsConnected(shardManager)) {
+                        handler.onDiscordReady();
+                    }
+                }
+            });
+
+            // Shards may have become ready before the listener was registered
+            if (allShardsConnected(shardManager)) {
+                handler.onDiscordReady();
+            }
+        } else {
+            // build() only starts the login; the gateway handshake continues in the background
+            shardManager = null;
+            jda = JDABuilder.createLight(token, intents).build();
+
+            // Open the webhook endpoint right away; deliveries are buffered until Discord is ready
+            handler = new WebhookHandler(new JdaGateway(jda), journal, openDeadLetterStore(), loadRoutingTable());
+            jda.addEventListener(new ListenerAdapter() {
+                @Override
+                public void onReady(ReadyEvent event) {
+                    System.out.println("Bot está online!");
+                    handler.onDiscordReady();
+                }
+            });
+
+            // The ready event may have fired before the listener was registered
+            if (jda.getStatus() == JDA.Status.CONNECTED) {
+                handler.onDiscordReady();
+            }
+        }
+
+        // One hook, so the handler's last sends are acknowledged before the journal closes
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                handler.close();
+            } catch (Exception e) {
+                System.err.println("Erro ao encerrar o processamento de webhooks: " + e.getMessage());
+            }
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (Exception e) {
+                    System.err.println("Erro ao fechar journal: " + e.getMessage());
+                }
+            }
+        }));
+        watchConfig();
+    }
+
+    /**
+     * Builds the shard manager for sharded mode. DISCORD_SHARDS_TOTAL sets the total number of shards of the
+     * bot (default: the count recommended by Discord); DISCORD_SHARD_MIN and DISCORD_SHARD_MAX select the
+     * range of shards this process runs, so several processes can split one bot between them.
+     *
+     * @param token   The bot token.
+     * @param intents The gateway intents to enable.
+     * @return The {@link ShardManager}, with its shards queued for login.
+     * @throws IllegalStateException If a shard range is configured without DISCORD_SHARDS_TOTAL or is invalid.
+     */
+    private static ShardManager buildShardManager(String token, EnumSet<GatewayIntent> intents) {
+        DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createLight(token, intents);
+
+        int shardsTotal = Config.getInt("DISCORD_SHARDS_TOTAL", -1);
+        int shardMin = Config.getInt("DISCORD_SHARD_MIN", -1);
+        int shardMax = Config.getInt("DISCORD_SHARD_MAX", -1);
+        if (shardsTotal > 0) {
+            builder.setShardsTotal(shardsTotal);
+            if (shardMin >= 0 || shardMax >= 0) {
+                if (shardMin < 0 || shardMax < shardMin || shardMax >= shardsTotal) {
+                    throw new IllegalStateException("Faixa de shards inválida no arquivo .env: "
+                            + shardMin + "-" + shardMax + " de " + shardsTotal);
+                }
+                builder.setShards(shardMin, shardMax);
+            }
+        } else if (shardMin >= 0 || shardMax >= 0) {
+            throw new IllegalStateException("DISCORD_SHARD_MIN/MAX exigem DISCORD_SHARDS_TOTAL no arquivo .env");
+        }
+
+        ShardManager shardManager = builder.build();
+        System.out.println("Iniciando " + shardManager.getShardsTotal() + " shard(s)");
+        return shardManager;
+    }
+
+    /**
+     * Returns whether every shard run by this process finished logging in.
+     *
+     * @param shardManager The shard manager.
+     * @return {@code true} if no shard is queued and every started shard is connected.
+     */
+    private static boolean allShardsConnected(ShardManager shardManager) {
+        if (shardManager.getShardsQueued() > 0) {
+            return false;
+        }
+        for (JDA shard : shardManager.getShards()) {
+            if (shard.getStatus() != JDA.Status.CONNECTED) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        jda.awaitReady();
-        System.out.println("Bot está online!");
+    /**
+     * Loads the routing table from the file named by ROUTES_FILE (default "routes.conf").
+     *
+     * @return The compiled {@link RoutingTable}.
+     * @throws Exception If the routes file cannot be read or contains an invalid rule.
+     */
+    private static RoutingTable loadRoutingTable() throws Exception {
+        ConfigSnapshot config = Config.current();
+        RoutingTable table = RoutingTable.fromConfig(config);
+        if (Files.exists(config.getRoutesFile())) {
+            System.out.println("Rotas carregadas de " + config.getRoutesFile());
+        }
+        return table;
+    }
+
+    /**
+     * Starts reloading the configuration when the .env or routes file changes, unless CONFIG_WATCH is "false".
+     */
+    private static void watchConfig() {
+        if (!Boolean.parseBoolean(Config.get("CONFIG_WATCH", "true"))) {
+            return;
+        }
 
-        new WebhookHandler(jda);
+        try {
+            ConfigWatcher watcher = new ConfigWatcher(Config.getInt("CONFIG_WATCH_DEBOUNCE_MS", 500));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    watcher.close();
+                } catch (Exception e) {
+                    System.err.println("Erro ao parar o monitoramento da configuração: " + e.getMessage());
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("Não foi possível monitorar o arquivo .env: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the delivery journal configured in the .env file, unless JOURNAL_ENABLED is "false".
+     *
+     * @return The opened {@link DeliveryJournal}, or {@code null} if journaling is disabled.
+     * @throws Exception If the journal directory cannot be read or written.
+     */
+    private static DeliveryJournal openJournal() throws Exception {
+        if (!Boolean.parseBoolean(Config.get("JOURNAL_ENABLED", "true"))) {
+            return null;
+        }
+
+        DeliveryJournal journal = new DeliveryJournal(Path.of(Config.get("JOURNAL_DIR", "journal")),
+                Config.getInt("JOURNAL_SEGMENT_BYTES", 64 * 1024 * 1024));
+        return journal;
+    }
+
+    /**
+     * Opens the dead letter store configured in the .env file, unless DEAD_LETTER_ENABLED is "false".
+     *
+     * @return The opened {@link DeadLetterStore}, or {@code null} if dead-lettering is disabled.
+     * @throws Exception If the dead letter directory cannot be read or written.
+     */
+    private static DeadLetterStore openDeadLetterStore() throws Exception {
+        if (!Boolean.parseBoolean(Config.get("DEAD_LETTER_ENABLED", "true"))) {
+            return null;
+        }
+
+        return new DeadLetterStore(Path.of(Config.get("DEAD_LETTER_DIR", "dead-letters")),
+                Config.getInt("DEAD_LETTER_MAX_ENTRIES", 10000));
     }
 
     public static void main(String[] args) {
@@ -36,4 +223,13 @@ public class Main {
     public JDA getJda() {
         return jda;
     }
+
+    /**
+     * Returns the shard manager when the bot runs in sharded mode.
+     *
+     * @return The {@link ShardManager}, or {@code null} if the bot runs a single JDA session.
+     */
+    public ShardManager getShardManager() {
+        return shardManager;
+    }
 }
\ No newline at end of file
@@ -1,13 +1,98 @@
 package br.com.ryuu.config;
 
-import io.github.cdimascio.dotenv.Dotenv;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Config {
-    private static final Dotenv dotenv = Dotenv.configure()
-            .directory("./")
-            .filename(".env")
-            .ignoreIfMissing()
-            .load();
+    private static final String DIRECTORY = "./";
+    private static final String FILE_NAME = ".env";
+
+    /**
+     * Settings applied again on reload; every other setting is only read at startup.
+     */
+    private static final Set<String> RELOADABLE_KEYS = Set.of("WEBHOOK_SECRET", "ADMIN_TOKEN",
+            "WEBHOOK_MAX_BODY_BYTES", "CHANNEL_ID", "ROUTES_FILE");
+
+    private static final AtomicReference<ConfigSnapshot> current =
+            new AtomicReference<>(ConfigSnapshot.load(DIRECTORY, FILE_NAME));
+    private static final List<ReloadListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Takes part in a configuration reload.
+     */
+    @FunctionalInterface
+    public interface ReloadListener {
+
+        /**
+         * Validates a new snapshot and prepares everything derived from it, without applying it yet.
+         *
+         * @param next The snapshot about to be published.
+         * @return The action that applies the prepared state once every listener accepted the snapshot.
+         * @throws Exception If the snapshot cannot be applied; the reload is then aborted.
+         */
+        Runnable prepare(ConfigSnapshot next) throws Exception;
+    }
+
+    /**
+     * Returns the current configuration snapshot. The read is a single volatile load, so callers on hot
+     * paths should keep the snapshot in a local variable for the duration of one operation.
+     *
+     * @return The current {@link ConfigSnapshot}.
+     */
+    public static ConfigSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Registers a listener that is called on every reload.
+     *
+     * @param listener The listener.
+     */
+    public static void addReloadListener(ReloadListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the location of the .env file, which the configuration watcher observes.
+     *
+     * @return The path of the .env file.
+     */
+    public static Path getEnvFile() {
+        return Path.of(DIRECTORY, FILE_NAME);
+    }
+
+    /**
+     * Reads the .env file again and publishes it as the current snapshot.
+     * The new snapshot is validated and every listener prepares its state first; if any step fails, the
+     * current snapshot stays in place and nothing is applied.
+     *
+     * @return The names of the settings that changed.
+     * @throws Exception If the file is invalid or a listener rejected it.
+     */
+    public static synchronized Set<String> reload() throws Exception {
+        ConfigSnapshot next = ConfigSnapshot.load(DIRECTORY, FILE_NAME);
+
+        List<Runnable> commits = new ArrayList<>(listeners.size());
+        for (ReloadListener listener : listeners) {
+            commits.add(listener.prepare(next));
+        }
+
+        ConfigSnapshot previous = current.getAndSet(next);
+        commits.forEach(Runnable::run);
+
+        Set<String> changed = next.changedKeys(previous);
+        for (String key : changed) {
+            if (!RELOADABLE_KEYS.contains(key)) {
+                System.err.println(key + " alterado no arquivo .env, a mudança só vale após reiniciar");
+            }
+        }
+        System.out.println("Configuração recarregada, " + changed.size() + " valor(es) alterado(s)");
+        return changed;
+    }
 
     /**
      * Retrieves the value of the specified environment variable.
@@ -18,8 +103,20 @@ public class Config {
      * @return The value of the specified environment variable or the provided default value.
      */
     public static String get(String key, String defaultValue) {
-        String value = dotenv.get(key);
-        return value != null ? value : defaultValue;
+        return current.get().get(key, defaultValue);
+    }
+
+    /**
+     * Retrieves the value of the specified environment variable as an integer.
+     * If the variable is not found, the method returns the provided default value.
+     *
+     * @param key          The name of the environment variable to retrieve.
+     * @param defaultValue The value to return if the specified environment variable is not found.
+     * @return The value of the specified environment variable or the provided default value.
+     * @throws IllegalStateException If the variable is present but is not a valid integer.
+     */
+    public static int getInt(String key, int defaultValue) {
+        return current.get().getInt(key, defaultValue);
     }
 
     /**
@@ -31,8 +128,8 @@ public class Config {
      * @throws IllegalStateException If the DISCORD_TOKEN environment variable is not found or is empty.
      */
     public static String getDiscordToken() {
-        String token = dotenv.get("DISCORD_TOKEN");
-        if (token == null || token.isEmpty()) {
+        String token = get("DISCORD_TOKEN", "");
+        if (token.isEmpty()) {
             throw new IllegalStateException("DISCORD_TOKEN não encontrado no arquivo .env");
         }
         return token;
@@ -48,8 +145,8 @@ public class Config {
      * @throws IllegalStateException If the CHANNEL_ID environment variable is not found or is empty.
      */
     public static String getChannelId() {
-        String channelId = dotenv.get("CHANNEL_ID");
-        if (channelId == null || channelId.isEmpty()) {
+        String channelId = get("CHANNEL_ID", "");
+        if (channelId.isEmpty()) {
             throw new IllegalStateException("CHANNEL_ID não encontrado no arquivo .env");
         }
         return channelId;
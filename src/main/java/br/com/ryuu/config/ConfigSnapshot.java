@@ -0,0 +1,175 @@
+package br.com.ryuu.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntry;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable view of the configuration at one point in time.
+ * <p>
+ * The settings read on every webhook delivery are parsed and validated once, when the snapshot is built,
+ * and exposed as typed fields; everything else stays available by key. A snapshot that fails validation
+ * is never published, so readers only ever see a complete, valid configuration.
+ */
+public final class ConfigSnapshot {
+    private final Map<String, String> values;
+    private final String webhookSecret;
+    private final String adminToken;
+    private final int maxBodyBytes;
+    private final Long defaultChannelId;
+    private final Path routesFile;
+
+    /**
+     * Builds a snapshot from raw key/value pairs.
+     *
+     * @param values The configuration values.
+     * @throws IllegalStateException If a typed setting has an invalid value.
+     */
+    public ConfigSnapshot(Map<String, String> values) {
+        this.values = Map.copyOf(values);
+        this.webhookSecret = get("WEBHOOK_SECRET", "");
+        this.adminToken = get("ADMIN_TOKEN", "");
+        this.maxBodyBytes = getInt("WEBHOOK_MAX_BODY_BYTES", 5 * 1024 * 1024);
+        if (maxBodyBytes <= 0) {
+            throw new IllegalStateException("WEBHOOK_MAX_BODY_BYTES deve ser positivo no arquivo .env");
+        }
+        this.defaultChannelId = parseChannelId(get("CHANNEL_ID", ""));
+        this.routesFile = Path.of(get("ROUTES_FILE", "routes.conf"));
+    }
+
+    /**
+     * Reads a .env file, merged with the process environment, into a snapshot.
+     *
+     * @param directory The directory holding the file.
+     * @param filename  The name of the file.
+     * @return The validated snapshot.
+     * @throws IllegalStateException If a typed setting has an invalid value.
+     */
+    public static ConfigSnapshot load(String directory, String filename) {
+        Dotenv dotenv = Dotenv.configure()
+                .directory(directory)
+                .filename(filename)
+                .ignoreIfMissing()
+                .load();
+
+        Map<String, String> values = new HashMap<>();
+        for (DotenvEntry entry : dotenv.entries()) {
+            values.put(entry.getKey(), entry.getValue());
+        }
+        return new ConfigSnapshot(values);
+    }
+
+    /**
+     * Retrieves the value of the specified setting.
+     *
+     * @param key          The name of the setting.
+     * @param defaultValue The value to return if the setting is not present.
+     * @return The value of the setting or the provided default value.
+     */
+    public String get(String key, String defaultValue) {
+        String value = values.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Retrieves the value of the specified setting as an integer.
+     *
+     * @param key          The name of the setting.
+     * @param defaultValue The value to return if the setting is not present or empty.
+     * @return The value of the setting or the provided default value.
+     * @throws IllegalStateException If the setting is present but is not a valid integer.
+     */
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(key + " inválido no arquivo .env: " + value);
+        }
+    }
+
+    /**
+     * Returns WEBHOOK_SECRET.
+     *
+     * @return The secret used to verify webhook signatures, or an empty string if verification is disabled.
+     */
+    public String getWebhookSecret() {
+        return webhookSecret;
+    }
+
+    /**
+     * Returns ADMIN_TOKEN.
+     *
+     * @return The bearer token required by the admin endpoints, or an empty string if they are disabled.
+     */
+    public String getAdminToken() {
+        return adminToken;
+    }
+
+    /**
+     * Returns WEBHOOK_MAX_BODY_BYTES, validated to be positive.
+     *
+     * @return The largest webhook body accepted, in bytes.
+     */
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * Returns CHANNEL_ID, the fallback channel of the routing table.
+     *
+     * @return The channel that receives events no route matches, or {@code null} if none is configured.
+     */
+    public Long getDefaultChannelId() {
+        return defaultChannelId;
+    }
+
+    /**
+     * Returns ROUTES_FILE; a relative path is read from the working directory.
+     *
+     * @return The path of the routes file.
+     */
+    public Path getRoutesFile() {
+        return routesFile;
+    }
+
+    /**
+     * Lists the settings whose value differs from another snapshot.
+     *
+     * @param previous The snapshot to compare with.
+     * @return The names of the added, removed or changed settings, sorted.
+     */
+    public Set<String> changedKeys(ConfigSnapshot previous) {
+        Set<String> changed = new TreeSet<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!entry.getValue().equals(previous.values.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : previous.values.keySet()) {
+            if (!values.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    private static Long parseChannelId(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("CHANNEL_ID inválido no arquivo .env: " + value);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.ryuu.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the .env file and the routes file and reloads the configuration when either changes.
+ * <p>
+ * Editors often save a file in several steps, so events are debounced: the reload runs once no further
+ * change was seen for the debounce delay. A file that fails validation is reported and ignored; the
+ * previous configuration stays active.
+ */
+public class ConfigWatcher implements AutoCloseable {
+    private final WatchService watchService;
+    private final long debounceMillis;
+    private final Thread thread;
+
+    /**
+     * Starts watching the .env file and the routes file named in the current configuration.
+     *
+     * @param debounceMillis How long to wait after the last change before reloading.
+     * @throws IOException If the watched directories cannot be registered.
+     */
+    public ConfigWatcher(long debounceMillis) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = debounceMillis;
+
+        Set<Path> directories = new HashSet<>();
+        directories.add(directoryOf(Config.getEnvFile()));
+        directories.add(directoryOf(Config.current().getRoutesFile()));
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+
+        this.thread = Thread.ofVirtual().name("config-watcher").start(this::run);
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = drain(key);
+
+                // Keep collecting events until the files have been quiet for the debounce delay
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+
+                if (relevant) {
+                    try {
+                        Config.reload();
+                    } catch (Exception e) {
+                        System.err.println("Configuração inválida, mantendo a anterior: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Consumes the events of a key and resets it.
+     *
+     * @return {@code true} if one of the events touched the .env file or the current routes file.
+     */
+    private static boolean drain(WatchKey key) {
+        Path directory = (Path) key.watchable();
+        Set<Path> watched = Set.of(Config.getEnvFile().toAbsolutePath().normalize(),
+                Config.current().getRoutesFile().toAbsolutePath().normalize());
+
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name
+                    && watched.contains(directory.resolve(name).toAbsolutePath().normalize())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private static Path directoryOf(Path file) {
+        return file.toAbsolutePath().normalize().getParent();
+    }
+
+    /**
+     * Stops watching.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
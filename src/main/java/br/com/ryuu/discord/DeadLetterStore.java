@@ -0,0 +1,235 @@
+package br.com.ryuu.discord;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * On-disk store of embeds whose delivery to Discord failed after every retry.
+ * <p>
+ * Entries are appended as one JSON line each to {@code dead-letters.jsonl}, holding the target channel,
+ * the failure and the embed in Discord's own JSON form. The file is rewritten when entries are taken out
+ * for re-drive. Once the store is full, the oldest entries are evicted in memory only; their lines stay in
+ * the file, and are skipped again on load, until it holds twice the capacity and is compacted. Recording a
+ * failure is therefore a single append, plus an amortized constant share of a rewrite during an outage.
+ */
+public class DeadLetterStore {
+
+    /**
+     * An embed that could not be delivered.
+     *
+     * @param id             The entry ID, unique within the store.
+     * @param channelId      The ID of the target channel.
+     * @param failedAtMillis The time of the last failed attempt, in epoch milliseconds.
+     * @param attempts       The number of send attempts made.
+     * @param error          The message of the last error.
+     * @param embed          The embed that was not delivered.
+     */
+    public record DeadLetter(long id, long channelId, long failedAtMillis, int attempts, String error,
+                             MessageEmbed embed) {
+    }
+
+    private static final String FILE_NAME = "dead-letters.jsonl";
+
+    private final Path file;
+    private final int maxEntries;
+    private final Map<Long, DeadLetter> entries = new LinkedHashMap<>();
+    private long nextId = 1;
+    private long evicted;
+    private long fileLines;
+
+    /**
+     * Opens the store in the given directory, loading the entries left by a previous run.
+     *
+     * @param directory  The directory holding the store file; created if missing.
+     * @param maxEntries The maximum number of entries kept; the oldest ones are evicted beyond it.
+     * @throws IOException              If the directory or the file cannot be read.
+     * @throws IllegalArgumentException If {@code maxEntries} is not positive.
+     */
+    public DeadLetterStore(Path directory, int maxEntries) throws IOException {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Dead letter capacity must be positive");
+        }
+
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.maxEntries = maxEntries;
+
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                fileLines++;
+                try {
+                    DeadLetter entry = decode(line);
+                    entries.put(entry.id(), entry);
+                    nextId = Math.max(nextId, entry.id() + 1);
+                } catch (RuntimeException e) {
+                    System.err.println("Entrada inválida ignorada no dead letter store: " + e.getMessage());
+                }
+            }
+            // Lines evicted by the previous run are dropped again; the file is only compacted once it is large
+            evictOldest();
+            if (fileLines > 2L * maxEntries) {
+                rewrite();
+            }
+        }
+    }
+
+    /**
+     * Records an embed that could not be delivered.
+     *
+     * @param channelId The ID of the target channel.
+     * @param embed     The embed that was not delivered.
+     * @param attempts  The number of send attempts made.
+     * @param error     The last error.
+     * @return The stored entry.
+     * @throws IOException If the entry cannot be written.
+     */
+    public synchronized DeadLetter add(long channelId, MessageEmbed embed, int attempts, Throwable error)
+            throws IOException {
+        DeadLetter entry = new DeadLetter(nextId++, channelId, System.currentTimeMillis(), attempts,
+                String.valueOf(error.getMessage()), embed);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(encode(entry));
+            writer.newLine();
+        }
+        fileLines++;
+        entries.put(entry.id(), entry);
+
+        evicted += evictOldest();
+        if (fileLines > 2L * maxEntries) {
+            rewrite();
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a snapshot of the stored entries, oldest first.
+     *
+     * @return The stored entries.
+     */
+    public synchronized List<DeadLetter> list() {
+        return List.copyOf(entries.values());
+    }
+
+    /**
+     * Removes entries from the store and returns them, so they can be sent again.
+     *
+     * @param ids The IDs of the entries to take, or {@code null} to take every entry.
+     * @return The removed entries, oldest first.
+     * @throws IOException If the store file cannot be rewritten; the store is then left unchanged.
+     */
+    public synchronized List<DeadLetter> take(Set<Long> ids) throws IOException {
+        List<DeadLetter> taken = new ArrayList<>();
+        List<DeadLetter> remaining = new ArrayList<>(entries.size());
+        for (DeadLetter entry : entries.values()) {
+            if (ids == null || ids.contains(entry.id())) {
+                taken.add(entry);
+            } else {
+                remaining.add(entry);
+            }
+        }
+        if (taken.isEmpty()) {
+            return taken;
+        }
+
+        // Only forget the entries once the file no longer holds them
+        rewrite(remaining);
+        taken.forEach(entry -> entries.remove(entry.id()));
+        return taken;
+    }
+
+    /**
+     * Returns how many dead letters the store currently holds.
+     *
+     * @return The number of stored entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns how many entries were evicted because the store was full.
+     *
+     * @return The total number of evicted entries.
+     */
+    public synchronized long getEvictedCount() {
+        return evicted;
+    }
+
+    /**
+     * Drops the oldest entries from memory until the store is back within its capacity.
+     *
+     * @return The number of dropped entries.
+     */
+    private int evictOldest() {
+        int dropped = 0;
+        Iterator<Long> iterator = entries.keySet().iterator();
+        while (entries.size() > maxEntries) {
+            iterator.next();
+            iterator.remove();
+            dropped++;
+        }
+        return dropped;
+    }
+
+    private void rewrite() throws IOException {
+        rewrite(entries.values());
+    }
+
+    /**
+     * Writes the given entries to a temporary file and moves it over the store file.
+     */
+    private void rewrite(Collection<DeadLetter> kept) throws IOException {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (DeadLetter entry : kept) {
+                writer.write(encode(entry));
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileLines = kept.size();
+    }
+
+    private static String encode(DeadLetter entry) {
+        return DataObject.empty()
+                .put("id", entry.id())
+                .put("channelId", entry.channelId())
+                .put("failedAt", entry.failedAtMillis())
+                .put("attempts", entry.attempts())
+                .put("error", entry.error())
+                .put("embed", entry.embed().toData())
+                .toString();
+    }
+
+    private static DeadLetter decode(String line) {
+        DataObject data = DataObject.fromJson(line);
+        return new DeadLetter(
+                data.getLong("id"),
+                data.getLong("channelId"),
+                data.getLong("failedAt"),
+                data.getInt("attempts"),
+                data.getString("error", null),
+                EmbedBuilder.fromData(data.getObject("embed")).build());
+    }
+}
@@ -0,0 +1,440 @@
+package br.com.ryuu.discord;
+
+import br.com.ryuu.metrics.Histogram;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Paces and batches outbound Discord messages per channel.
+ * <p>
+ * Every channel has its own queue and token bucket sized after Discord's per-channel message limit.
+ * While tokens are available an embed is sent as soon as it is submitted; when the bucket is empty,
+ * embeds accumulate and the next send packs as many as fit into one message (up to
+ * {@link Message#MAX_EMBED_COUNT} embeds and {@link MessageEmbed#EMBED_MAX_LENGTH_BOT} characters in total).
+ * All queue state is confined to a single scheduler thread, so no locking is needed.
+ * <p>
+ * A failed message is put back at the front of its channel queue and the channel waits for a jittered,
+ * exponentially growing delay before sending again; the wait is a scheduled task, so no thread is blocked.
+ * Embeds that fail {@code maxAttempts} times are handed to the {@link DeadLetterStore}.
+ * <p>
+ * Upserts, which create or edit a message the caller keeps updating, share the channel's queue and token
+ * bucket but are always sent on their own and are not retried: the caller sends a newer version later anyway.
+ */
+public class DiscordDispatcher {
+
+    private record PendingEmbed(MessageEmbed embed, CompletableFuture<Long> done, int attempts, boolean upsert,
+                                long editOf) {
+    }
+
+    private final class ChannelQueue {
+        private final long channelId;
+        private final ArrayDeque<PendingEmbed> pending = new ArrayDeque<>();
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+        private long retryAt = refilledAt;
+        private boolean drainScheduled;
+
+        private ChannelQueue(long channelId) {
+            this.channelId = channelId;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    /**
+     * Message ID passed to {@link #upsert(long, long, MessageEmbed)} to create a new message.
+     */
+    public static final long NEW_MESSAGE = 0L;
+
+    private static final MetricVec<Histogram> SEND_DURATION = Metrics.histogramVec("ryuu_discord_send_duration_seconds",
+            "Discord message round-trip time by outcome", "outcome");
+
+    private final DiscordGateway gateway;
+    private final int burst;
+    private final double tokensPerNano;
+    private final int maxAttempts;
+    private final long retryBaseNanos;
+    private final long retryMaxNanos;
+    private final DeadLetterStore deadLetters;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, ChannelQueue> channels = new HashMap<>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder embedsSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder totalSendLatencyNanos = new LongAdder();
+    private final AtomicLong maxSendLatencyNanos = new AtomicLong();
+
+    /**
+     * Constructs a new instance of the {@code DiscordDispatcher} class that does not retry failed sends.
+     *
+     * @param gateway      The gateway used to send messages.
+     * @param burst        The number of messages a channel may send back to back.
+     * @param windowMillis The time it takes to refill {@code burst} tokens.
+     * @throws NullPointerException     If {@code gateway} is {@code null}.
+     * @throws IllegalArgumentException If {@code burst} or {@code windowMillis} is not positive.
+     */
+    public DiscordDispatcher(DiscordGateway gateway, int burst, long windowMillis) {
+        this(gateway, burst, windowMillis, 1, 1, 1, null);
+    }
+
+    /**
+     * Constructs a new instance of the {@code DiscordDispatcher} class.
+     *
+     * @param gateway         The gateway used to send messages.
+     * @param burst           The number of messages a channel may send back to back.
+     * @param windowMillis    The time it takes to refill {@code burst} tokens.
+     * @param maxAttempts     The number of times an embed is sent before it is given up.
+     * @param retryBaseMillis The delay before the first retry; it doubles with every further attempt.
+     * @param retryMaxMillis  The upper bound of the retry delay.
+     * @param deadLetters     The store receiving embeds that exhausted their attempts, or {@code null} to
+     *                        fail their futures instead.
+     * @throws NullPointerException     If {@code gateway} is {@code null}.
+     * @throws IllegalArgumentException If {@code burst}, {@code windowMillis}, {@code maxAttempts} or the
+     *                                  retry delays are not positive.
+     */
+    public DiscordDispatcher(DiscordGateway gateway, int burst, long windowMillis, int maxAttempts,
+                             long retryBaseMillis, long retryMaxMillis, DeadLetterStore deadLetters) {
+        if (gateway == null) {
+            throw new NullPointerException("Discord gateway cannot be null");
+        }
+        if (burst <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Rate limit burst and window must be positive");
+        }
+        if (maxAttempts <= 0 || retryBaseMillis <= 0 || retryMaxMillis <= 0) {
+            throw new IllegalArgumentException("Retry attempts and delays must be positive");
+        }
+
+        this.gateway = gateway;
+        this.burst = burst;
+        this.tokensPerNano = burst / (double) TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxAttempts = maxAttempts;
+        this.retryBaseNanos = TimeUnit.MILLISECONDS.toNanos(retryBaseMillis);
+        this.retryMaxNanos = TimeUnit.MILLISECONDS.toNanos(retryMaxMillis);
+        this.deadLetters = deadLetters;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discord-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues an embed for the given channel.
+     *
+     * @param channelId The ID of the target text channel.
+     * @param embed     The embed to send.
+     * @return A future completed once the message carrying the embed was sent or the embed was moved to the
+     * dead letter store, or exceptionally if it failed and could not be kept.
+     */
+    public CompletableFuture<Void> submit(long channelId, MessageEmbed embed) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        enqueue(channelId, new PendingEmbed(embed, done, 0, false, NEW_MESSAGE));
+        return done.thenApply(messageId -> null);
+    }
+
+    /**
+     * Queues an embed that replaces the content of a message, or creates the message if there is none yet.
+     * The embed is never batched with others, so the returned message holds only this embed. A failed
+     * upsert is not retried; the future fails and the caller may post a new message instead.
+     *
+     * @param channelId The ID of the target text channel.
+     * @param messageId The ID of the message to edit, or {@link #NEW_MESSAGE} to send a new one.
+     * @param embed     The embed to send.
+     * @return A future completed with the ID of the edited or created message.
+     */
+    public CompletableFuture<Long> upsert(long channelId, long messageId, MessageEmbed embed) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        enqueue(channelId, new PendingEmbed(embed, done, 0, true, messageId));
+        return done;
+    }
+
+    private void enqueue(long channelId, PendingEmbed pending) {
+        queueDepth.incrementAndGet();
+        scheduler.execute(() -> {
+            ChannelQueue queue = channels.computeIfAbsent(channelId, ChannelQueue::new);
+            queue.pending.add(pending);
+            if (!queue.drainScheduled) {
+                drain(queue);
+            }
+        });
+    }
+
+    /**
+     * Sends as many messages as the channel's token bucket allows, then schedules the next attempt
+     * for when a token becomes available. A channel backing off after a failure waits until its retry time.
+     * Runs on the scheduler thread only.
+     */
+    private void drain(ChannelQueue queue) {
+        long now = System.nanoTime();
+        if (now - queue.retryAt < 0) {
+            scheduleDrain(queue, queue.retryAt - now);
+            return;
+        }
+        queue.refill(now);
+
+        while (!queue.pending.isEmpty() && queue.tokens >= 1) {
+            queue.tokens -= 1;
+            send(queue, nextBatch(queue));
+        }
+
+        if (!queue.pending.isEmpty()) {
+            scheduleDrain(queue, (long) Math.ceil((1 - queue.tokens) / tokensPerNano));
+        }
+    }
+
+    private void scheduleDrain(ChannelQueue queue, long delayNanos) {
+        queue.drainScheduled = true;
+        scheduler.schedule(() -> {
+            queue.drainScheduled = false;
+            drain(queue);
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes the longest run of pending embeds that fits in a single message. An upsert is always taken alone.
+     */
+    private List<PendingEmbed> nextBatch(ChannelQueue queue) {
+        if (queue.pending.peek().upsert()) {
+            queueDepth.decrementAndGet();
+            return List.of(queue.pending.poll());
+        }
+
+        List<PendingEmbed> batch = new ArrayList<>(Math.min(queue.pending.size(), Message.MAX_EMBED_COUNT));
+        int totalLength = 0;
+
+        while (!queue.pending.isEmpty() && batch.size() < Message.MAX_EMBED_COUNT) {
+            if (queue.pending.peek().upsert()) {
+                break;
+            }
+            int length = queue.pending.peek().embed().getLength();
+            if (!batch.isEmpty() && totalLength + length > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+                break;
+            }
+            totalLength += length;
+            batch.add(queue.pending.poll());
+        }
+
+        queueDepth.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void send(ChannelQueue queue, List<PendingEmbed> batch) {
+        long channelId = queue.channelId;
+        List<MessageEmbed> embeds = new ArrayList<>(batch.size());
+        for (PendingEmbed pending : batch) {
+            embeds.add(pending.embed());
+        }
+
+        long startedAt = System.nanoTime();
+        inFlight.incrementAndGet();
+        PendingEmbed first = batch.get(0);
+        CompletableFuture<Long> request = first.editOf() != NEW_MESSAGE
+                ? gateway.edit(channelId, first.editOf(), embeds)
+                : gateway.send(channelId, embeds);
+        request.whenComplete((messageId, error) -> {
+            inFlight.decrementAndGet();
+            long latency = System.nanoTime() - startedAt;
+            totalSendLatencyNanos.add(latency);
+            maxSendLatencyNanos.accumulateAndGet(latency, Math::max);
+            SEND_DURATION.labels(error == null ? "success" : "failure").record(latency);
+
+            if (error != null) {
+                sendFailures.increment();
+                System.err.println("Erro ao enviar mensagem para o canal " + channelId + ": " + error.getMessage());
+                scheduler.execute(() -> retryOrDeadLetter(queue, batch, error));
+            } else {
+                messagesSent.increment();
+                embedsSent.add(batch.size());
+                batch.forEach(pending -> pending.done().complete(messageId));
+            }
+        });
+    }
+
+    /**
+     * Puts the embeds of a failed message back at the front of the channel queue and delays the channel,
+     * or moves the embeds that ran out of attempts to the dead letter store. Runs on the scheduler thread only.
+     */
+    private void retryOrDeadLetter(ChannelQueue queue, List<PendingEmbed> batch, Throwable error) {
+        int attempts = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            PendingEmbed pending = batch.get(i);
+            int attempt = pending.attempts() + 1;
+            if (pending.upsert()) {
+                pending.done().completeExceptionally(error);
+            } else if (attempt < maxAttempts) {
+                queue.pending.addFirst(new PendingEmbed(pending.embed(), pending.done(), attempt, false,
+                        NEW_MESSAGE));
+                queueDepth.incrementAndGet();
+                retries.increment();
+                attempts = Math.max(attempts, attempt);
+            } else {
+                deadLetter(queue.channelId, pending, attempt, error);
+            }
+        }
+
+        if (attempts > 0) {
+            queue.retryAt = System.nanoTime() + backoffNanos(attempts);
+            if (!queue.drainScheduled) {
+                drain(queue);
+            }
+        }
+    }
+
+    /**
+     * Computes the delay before the given retry: the base delay doubled per attempt, capped, with the
+     * upper half randomised so channels failing together do not retry in lockstep.
+     */
+    private long backoffNanos(int attempt) {
+        long ceiling = retryMaxNanos;
+        if (attempt - 1 < Long.numberOfLeadingZeros(retryBaseNanos) - 1) {
+            ceiling = Math.min(retryMaxNanos, retryBaseNanos << (attempt - 1));
+        }
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    private void deadLetter(long channelId, PendingEmbed pending, int attempts, Throwable error) {
+        if (deadLetters == null) {
+            pending.done().completeExceptionally(error);
+            return;
+        }
+
+        try {
+            deadLetters.add(channelId, pending.embed(), attempts, error);
+            deadLettered.increment();
+            System.err.println("Embed para o canal " + channelId + " movido para o dead letter store após "
+                    + attempts + " tentativa(s)");
+            pending.done().complete(null);
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar dead letter: " + e.getMessage());
+            pending.done().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the dispatcher. Embeds still queued are not sent.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Waits until every queued embed was sent or dead-lettered, then stops the dispatcher. Embeds still
+     * queued when the timeout expires, e.g. because their channel is backing off, are not sent.
+     *
+     * @param timeoutMillis The longest time to wait for the queues to drain.
+     */
+    public void close(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            while ((queueDepth.get() > 0 || inFlight.get() > 0) && System.nanoTime() - deadline < 0) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int remaining = queueDepth.get();
+        if (remaining > 0) {
+            System.err.println(remaining + " embed(s) não enviados ao encerrar o dispatcher");
+        }
+        shutdown();
+    }
+
+    /**
+     * Returns how many embeds are waiting to be sent across all channels.
+     *
+     * @return The number of waiting embeds.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns how many messages were sent successfully.
+     *
+     * @return The total number of sent messages.
+     */
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    /**
+     * Returns how many embeds were delivered in successfully sent messages.
+     *
+     * @return The total number of delivered embeds.
+     */
+    public long getEmbedsSent() {
+        return embedsSent.sum();
+    }
+
+    /**
+     * Returns how many message sends failed.
+     *
+     * @return The total number of failed sends.
+     */
+    public long getSendFailures() {
+        return sendFailures.sum();
+    }
+
+    /**
+     * Returns how many embeds were put back in their queue after a failed send.
+     *
+     * @return The total number of retried embeds.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Returns how many embeds were moved to the dead letter store after their last attempt.
+     *
+     * @return The total number of dead-lettered embeds.
+     */
+    public long getDeadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+    /**
+     * Returns the accumulated send latency of every completed send.
+     *
+     * @return The total send latency, in nanoseconds.
+     */
+    public long getTotalSendLatencyNanos() {
+        return totalSendLatencyNanos.sum();
+    }
+
+    /**
+     * Returns the highest send latency observed.
+     *
+     * @return The highest send latency, in nanoseconds.
+     */
+    public long getMaxSendLatencyNanos() {
+        return maxSendLatencyNanos.get();
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.ryuu.discord;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outbound connection to Discord used by the {@link DiscordDispatcher}.
+ * Keeping the dispatcher behind this interface lets it stay independent of how the bot is connected.
+ */
+public interface DiscordGateway {
+
+    /**
+     * Sends a message containing the given embeds to a text channel.
+     *
+     * @param channelId The ID of the target text channel.
+     * @param embeds    The embeds to send; at most {@link net.dv8tion.jda.api.entities.Message#MAX_EMBED_COUNT}.
+     * @return A future completed with the ID of the created message, or completed exceptionally if the send failed.
+     */
+    CompletableFuture<Long> send(long channelId, List<MessageEmbed> embeds);
+
+    /**
+     * Replaces the embeds of a message previously sent by the bot.
+     *
+     * @param channelId The ID of the text channel holding the message.
+     * @param messageId The ID of the message to edit.
+     * @param embeds    The new embeds of the message.
+     * @return A future completed with the ID of the edited message, or completed exceptionally if the edit
+     * failed, e.g. because the message was deleted.
+     */
+    CompletableFuture<Long> edit(long channelId, long messageId, List<MessageEmbed> embeds);
+}
@@ -0,0 +1,132 @@
+package br.com.ryuu.discord;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.sharding.ShardManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * {@link DiscordGateway} backed by a single {@link JDA} session or by a {@link ShardManager}.
+ * Resolved {@link TextChannel} handles are cached and evicted when a send to them fails.
+ * <p>
+ * In sharded mode the guild of every resolved channel is remembered, so after an eviction the channel is
+ * looked up only in the shard owning that guild instead of in every shard.
+ */
+public class JdaGateway implements DiscordGateway {
+    private final LongFunction<TextChannel> lookup;
+    private final Map<Long, TextChannel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new instance of the {@code JdaGateway} class.
+     *
+     * @param jda The JDA instance representing the Discord bot.
+     * @throws NullPointerException If the provided {@code jda} is {@code null}.
+     */
+    public JdaGateway(JDA jda) {
+        if (jda == null) {
+            throw new NullPointerException("JDA instance cannot be null");
+        }
+        this.lookup = jda::getTextChannelById;
+    }
+
+    /**
+     * Constructs a new instance of the {@code JdaGateway} class for a sharded bot.
+     *
+     * @param shardManager The shard manager owning the bot's shards in this process.
+     * @throws NullPointerException If the provided {@code shardManager} is {@code null}.
+     */
+    public JdaGateway(ShardManager shardManager) {
+        if (shardManager == null) {
+            throw new NullPointerException("Shard manager cannot be null");
+        }
+
+        Map<Long, Long> channelGuilds = new ConcurrentHashMap<>();
+        this.lookup = channelId -> {
+            TextChannel channel = null;
+            Long guildId = channelGuilds.get(channelId);
+            if (guildId != null) {
+                JDA shard = shardManager.getShardById(shardFor(guildId, shardManager.getShardsTotal()));
+                if (shard != null) {
+                    channel = shard.getTextChannelById(channelId);
+                }
+            }
+            if (channel == null) {
+                channel = shardManager.getTextChannelById(channelId);
+                if (channel != null) {
+                    channelGuilds.put(channelId, channel.getGuild().getIdLong());
+                }
+            }
+            return channel;
+        };
+    }
+
+    /**
+     * Computes the shard that owns a guild, using Discord's sharding formula.
+     *
+     * @param guildId     The ID of the guild.
+     * @param shardsTotal The total number of shards of the bot.
+     * @return The ID of the shard that receives the guild's events.
+     */
+    public static int shardFor(long guildId, int shardsTotal) {
+        return (int) ((guildId >>> 22) % shardsTotal);
+    }
+
+    /**
+     * Returns the cached handle for a channel, looking it up in the JDA cache on a miss.
+     *
+     * @param channelId The ID of the text channel.
+     * @return The {@link TextChannel}, or {@code null} if the bot cannot see it.
+     */
+    private TextChannel resolve(long channelId) {
+        TextChannel channel = channels.get(channelId);
+        if (channel == null) {
+            channel = lookup.apply(channelId);
+            if (channel != null) {
+                channels.put(channelId, channel);
+            }
+        }
+        return channel;
+    }
+
+    @Override
+    public CompletableFuture<Long> send(long channelId, List<MessageEmbed> embeds) {
+        TextChannel channel = resolve(channelId);
+        if (channel == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Canal não encontrado: " + channelId));
+        }
+        try {
+            return channel.sendMessageEmbeds(embeds).submit()
+                    .whenComplete((message, error) -> {
+                        if (error != null) {
+                            channels.remove(channelId);
+                        }
+                    })
+                    .thenApply(Message::getIdLong);
+        } catch (RuntimeException e) {
+            // JDA validates permissions and embed limits eagerly and throws instead of failing the action
+            channels.remove(channelId);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> edit(long channelId, long messageId, List<MessageEmbed> embeds) {
+        TextChannel channel = resolve(channelId);
+        if (channel == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Canal não encontrado: " + channelId));
+        }
+        try {
+            return channel.editMessageEmbedsById(messageId, embeds).submit()
+                    .thenApply(Message::getIdLong);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
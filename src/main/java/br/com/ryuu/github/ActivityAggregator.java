@@ -0,0 +1,427 @@
+package br.com.ryuu.github;
+
+import br.com.ryuu.discord.DiscordDispatcher;
+import br.com.ryuu.github.payload.ForkPayload;
+import br.com.ryuu.github.payload.StarPayload;
+import br.com.ryuu.metrics.Counter;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+import br.com.ryuu.routing.RoutingTable;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+import br.com.ryuu.utils.EmbedTemplates;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Aggregates star and fork events into one "activity" message per repository and channel.
+ * <p>
+ * Recording an event only bumps per-repository counters and writes the user into a small ring, without
+ * locking, so a repository receiving hundreds of stars per minute costs no Discord requests on the hot
+ * path. Every flush interval the counters are drained and the activity message
+ * is edited in place; a new message is posted once per window, or when the previous one can no longer be
+ * edited. Outbound requests are therefore bounded by the number of active repositories and the flush
+ * interval, not by event volume.
+ * <p>
+ * A repository whose window expired without new events is evicted after the flush, so the map and every
+ * flush only cover repositories active within the last window. A worker may still be recording into an
+ * entry as it is evicted; the next flush moves such late counts into the repository's new entry.
+ * <p>
+ * Counts are held in memory, so the future returned for an event only completes once an update including
+ * it was sent to every channel of the repository. Until then the webhook delivery stays unacknowledged in
+ * the journal, and a crash replays it instead of losing the event.
+ */
+public class ActivityAggregator {
+    private static final MetricVec<Counter> RECORDED = Metrics.counterVec("ryuu_activity_events_total",
+            "Star and fork events folded into activity messages", "event");
+    private static final Counter UPDATES = Metrics.counter("ryuu_activity_updates_total",
+            "Activity messages posted or edited");
+
+    private static final long IN_FLIGHT = -1L;
+    private static final String UNKNOWN_TOTAL = "—";
+
+    /**
+     * Per-repository state. The counters, totals and the user ring are written by webhook workers; the
+     * window fields are only touched by the flush thread.
+     */
+    private static final class RepoActivity {
+        final String repoName;
+        final LongAdder stars = new LongAdder();
+        final LongAdder forks = new LongAdder();
+        final AtomicLong totalStars = new AtomicLong(-1);
+        final AtomicLong totalForks = new AtomicLong(-1);
+        final AtomicReferenceArray<String> recentUsers;
+        final AtomicLong recentCursor = new AtomicLong();
+        final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+        volatile String repoUrl;
+        volatile boolean dirty;
+
+        long windowStartedAt;
+        long windowStars;
+        long windowForks;
+        Map<Long, Long> messages = new ConcurrentHashMap<>();
+
+        RepoActivity(String repoName, int recentUsers) {
+            this.repoName = repoName;
+            this.recentUsers = new AtomicReferenceArray<>(recentUsers);
+        }
+
+        void addUser(String user) {
+            if (user != null) {
+                int slot = (int) (recentCursor.getAndIncrement() % recentUsers.length());
+                recentUsers.set(slot, user);
+            }
+        }
+
+        /**
+         * Collects the users recorded in the ring, skipping repeats.
+         *
+         * @return The distinct users in the ring, newest first.
+         */
+        List<String> recentUsers() {
+            Set<String> users = new LinkedHashSet<>();
+            long cursor = recentCursor.get();
+            for (long i = cursor - 1; i >= 0 && i >= cursor - recentUsers.length(); i--) {
+                String user = recentUsers.get((int) (i % recentUsers.length()));
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+            return new ArrayList<>(users);
+        }
+    }
+
+    private final DiscordDispatcher dispatcher;
+    private final Supplier<RoutingTable> routingTable;
+    private final long windowMillis;
+    private final int recentUsers;
+    private final Map<String, RepoActivity> repos = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    // Entries evicted by the previous flush; only touched by the flush thread
+    private List<RepoActivity> evicted = new ArrayList<>();
+
+    /**
+     * Constructs a new instance of the {@code ActivityAggregator} class and starts its flush schedule.
+     *
+     * @param dispatcher   The dispatcher that posts and edits the activity messages.
+     * @param routingTable Supplies the current routing index; the union of a repository's star and fork
+     *                     channels receives its activity message.
+     * @param flushMillis  The interval between two updates of the activity messages.
+     * @param windowMillis How long one activity message is edited before a new one is posted.
+     * @param recentUsers  The number of recent users remembered per repository.
+     * @throws NullPointerException     If {@code dispatcher} or {@code routingTable} is {@code null}.
+     * @throws IllegalArgumentException If {@code flushMillis}, {@code windowMillis} or {@code recentUsers}
+     *                                  is not positive.
+     */
+    public ActivityAggregator(DiscordDispatcher dispatcher, Supplier<RoutingTable> routingTable,
+                              long flushMillis, long windowMillis, int recentUsers) {
+        if (dispatcher == null) {
+            throw new NullPointerException("Dispatcher cannot be null");
+        }
+        if (routingTable == null) {
+            throw new NullPointerException("Routing table cannot be null");
+        }
+        if (flushMillis <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval and window must be positive");
+        }
+        if (recentUsers <= 0) {
+            throw new IllegalArgumentException("Recent user count must be positive");
+        }
+
+        this.dispatcher = dispatcher;
+        this.routingTable = routingTable;
+        this.windowMillis = windowMillis;
+        this.recentUsers = recentUsers;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("activity-aggregator").factory());
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a new star.
+     *
+     * @param star The star event.
+     * @return A future completed once an activity update including the star was sent.
+     */
+    public CompletableFuture<Void> recordStar(StarPayload star) {
+        RepoActivity activity = activity(star.repoName());
+        activity.stars.increment();
+        activity.totalStars.accumulateAndGet(star.totalStars(), Math::max);
+        activity.addUser(star.user());
+        if (star.repoUrl() != null) {
+            activity.repoUrl = star.repoUrl();
+        }
+        RECORDED.labels("star").inc();
+        return awaitUpdate(activity);
+    }
+
+    /**
+     * Records a new fork.
+     *
+     * @param fork The fork event.
+     * @return A future completed once an activity update including the fork was sent.
+     */
+    public CompletableFuture<Void> recordFork(ForkPayload fork) {
+        RepoActivity activity = activity(fork.originalRepo());
+        activity.forks.increment();
+        activity.totalForks.accumulateAndGet(fork.totalForks(), Math::max);
+        activity.addUser(fork.user());
+        RECORDED.labels("fork").inc();
+        return awaitUpdate(activity);
+    }
+
+    /**
+     * Registers a future for an event just recorded. It is queued after the counters were bumped, so a flush
+     * that takes it from the queue always sees the event in the counters it drains next.
+     */
+    private static CompletableFuture<Void> awaitUpdate(RepoActivity activity) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        activity.waiters.add(done);
+        return done;
+    }
+
+    /**
+     * Looks up the state of a repository, only taking the map's lock when it has to be created.
+     */
+    private RepoActivity activity(String repoName) {
+        RepoActivity activity = repos.get(repoName);
+        return activity != null ? activity : repos.computeIfAbsent(repoName, name -> new RepoActivity(name, recentUsers));
+    }
+
+    /**
+     * Runs one final flush and stops the flush schedule.
+     */
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Erro ao atualizar mensagens de atividade: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Drains the counters of every repository and updates the activity messages of those that changed.
+     */
+    private void flush() {
+        long now = System.currentTimeMillis();
+        List<RepoActivity> lateEvicted = evicted;
+        evicted = new ArrayList<>();
+        lateEvicted.forEach(this::moveLateEvents);
+
+        for (RepoActivity activity : repos.values()) {
+            // Take the waiters before the counters, so every waiter taken has its event in this flush
+            List<CompletableFuture<Void>> waiters = new ArrayList<>();
+            CompletableFuture<Void> waiter;
+            while ((waiter = activity.waiters.poll()) != null) {
+                waiters.add(waiter);
+            }
+
+            long stars = activity.stars.sumThenReset();
+            long forks = activity.forks.sumThenReset();
+            boolean changed = stars > 0 || forks > 0;
+
+            // An expired window starts over with a new message, but only once there is something to show
+            if (changed && now - activity.windowStartedAt >= windowMillis) {
+                activity.windowStartedAt = now;
+                activity.windowStars = 0;
+                activity.windowForks = 0;
+                activity.messages = new ConcurrentHashMap<>();
+            }
+            if (changed) {
+                activity.windowStars += stars;
+                activity.windowForks += forks;
+                activity.dirty = true;
+            }
+            if (activity.dirty) {
+                update(activity, waiters);
+            } else {
+                waiters.forEach(done -> done.complete(null));
+                if (now - activity.windowStartedAt >= windowMillis) {
+                    evictIfIdle(activity, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a repository whose window expired with nothing left to show or send. The counters are checked
+     * again inside the map's compute; an event recorded on the entry after that is moved to the repository's
+     * new entry by the next flush.
+     */
+    private void evictIfIdle(RepoActivity activity, long now) {
+        boolean[] removed = new boolean[1];
+        repos.computeIfPresent(activity.repoName, (name, current) -> {
+            if (current != activity
+                    || current.dirty
+                    || current.stars.sum() > 0
+                    || current.forks.sum() > 0
+                    || !current.waiters.isEmpty()
+                    || now - current.windowStartedAt < windowMillis
+                    || current.messages.containsValue(IN_FLIGHT)) {
+                return current;
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            evicted.add(activity);
+        }
+    }
+
+    /**
+     * Moves the events a worker recorded on an entry while it was being evicted to the repository's
+     * current entry, so they are announced with the next update.
+     */
+    private void moveLateEvents(RepoActivity old) {
+        long stars = old.stars.sumThenReset();
+        long forks = old.forks.sumThenReset();
+        if (stars == 0 && forks == 0 && old.waiters.isEmpty()) {
+            return;
+        }
+
+        RepoActivity activity = activity(old.repoName);
+        activity.stars.add(stars);
+        activity.forks.add(forks);
+        activity.totalStars.accumulateAndGet(old.totalStars.get(), Math::max);
+        activity.totalForks.accumulateAndGet(old.totalForks.get(), Math::max);
+        List<String> users = old.recentUsers();
+        for (int i = users.size() - 1; i >= 0; i--) {
+            activity.addUser(users.get(i));
+        }
+        if (activity.repoUrl == null) {
+            activity.repoUrl = old.repoUrl;
+        }
+        CompletableFuture<Void> waiter;
+        while ((waiter = old.waiters.poll()) != null) {
+            activity.waiters.add(waiter);
+        }
+    }
+
+    /**
+     * Returns how many repositories currently hold activity state.
+     *
+     * @return The number of tracked repositories.
+     */
+    public int getTrackedRepositoryCount() {
+        return repos.size();
+    }
+
+    /**
+     * Posts or edits the activity message of a repository on every channel it is routed to.
+     * Channels whose previous update is still in flight are skipped and retried on the next flush.
+     * The waiters complete once every channel was updated; after a skipped channel or a failure they are
+     * handed back to the repository and complete with a later update.
+     */
+    private void update(RepoActivity activity, List<CompletableFuture<Void>> waiters) {
+        RoutingTable routingTable = this.routingTable.get();
+        long[] starChannels = routingTable.route(activity.repoName, null, "star");
+        long[] forkChannels = routingTable.route(activity.repoName, null, "fork");
+        Set<Long> channelIds = new LinkedHashSet<>();
+        for (long channelId : starChannels) {
+            channelIds.add(channelId);
+        }
+        for (long channelId : forkChannels) {
+            channelIds.add(channelId);
+        }
+
+        activity.dirty = false;
+        Map<Long, Long> messages = activity.messages;
+        Map<EmbedTemplates, MessageEmbed> rendered = new HashMap<>();
+        List<CompletableFuture<Long>> sends = new ArrayList<>(channelIds.size());
+        boolean skipped = false;
+        for (long channelId : channelIds) {
+            Long messageId = messages.get(channelId);
+            if (messageId != null && messageId == IN_FLIGHT) {
+                activity.dirty = true;
+                skipped = true;
+                continue;
+            }
+
+            MessageEmbed embed = rendered.computeIfAbsent(EmbedTemplates.named(routingTable.templateFor(channelId)),
+                    templates -> render(templates, activity));
+            messages.put(channelId, IN_FLIGHT);
+            sends.add(dispatcher.upsert(channelId, messageId == null ? DiscordDispatcher.NEW_MESSAGE : messageId, embed)
+                    .whenComplete((sentId, error) -> {
+                        if (error == null) {
+                            UPDATES.inc();
+                            messages.put(channelId, sentId);
+                        } else {
+                            System.err.println("Falha ao atualizar atividade de " + activity.repoName
+                                    + " no canal " + channelId + ": " + error.getMessage());
+                            // Only a deleted message is replaced; after any other failure the edit may still
+                            // have gone through, so the next flush edits the same message again
+                            if (messageId == null || isUnknownMessage(error)) {
+                                messages.remove(channelId);
+                            } else {
+                                messages.put(channelId, messageId);
+                            }
+                            activity.dirty = true;
+                        }
+                    }));
+        }
+
+        if (waiters.isEmpty()) {
+            return;
+        }
+        if (skipped) {
+            activity.waiters.addAll(waiters);
+            return;
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).whenComplete((ignored, error) -> {
+            if (error == null) {
+                waiters.forEach(done -> done.complete(null));
+            } else {
+                activity.waiters.addAll(waiters);
+            }
+        });
+    }
+
+    private static boolean isUnknownMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof ErrorResponseException response
+                && response.getErrorResponse() == ErrorResponse.UNKNOWN_MESSAGE;
+    }
+
+    private static MessageEmbed render(EmbedTemplates templates, RepoActivity activity) {
+        String repoUrl = activity.repoUrl != null ? activity.repoUrl : "https://github.com/" + activity.repoName;
+        return DiscordEmbedBuilder.createActivityEmbed(templates, activity.repoName, repoUrl,
+                activity.windowStars, activity.windowForks,
+                total(activity.totalStars.get()), total(activity.totalForks.get()),
+                activity.recentUsers());
+    }
+
+    private static String total(long value) {
+        return value < 0 ? UNKNOWN_TOTAL : String.valueOf(value);
+    }
+}
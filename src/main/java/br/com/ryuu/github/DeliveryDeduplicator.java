@@ -0,0 +1,225 @@
+package br.com.ryuu.github;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, time-expiring set of recently seen {@code X-GitHub-Delivery} ids.
+ * <p>
+ * Delivery ids are UUIDs, so each one is stored as two primitive {@code long}s in an open-addressed
+ * table instead of a boxed map entry. Two generations are kept: new ids go into the current one, and
+ * when it fills up or becomes older than the TTL it replaces the previous generation, which is
+ * discarded. An id is therefore remembered for at least the TTL unless more than {@code capacity}
+ * newer deliveries arrive first, and memory stays fixed at two tables.
+ */
+public class DeliveryDeduplicator {
+
+    private static final long TOMBSTONE_LO = 1L;
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private long[] current;
+    private long[] previous;
+    private int currentSize;
+    private long currentStartedAt;
+
+    /**
+     * Constructs a new instance of the {@code DeliveryDeduplicator} class.
+     *
+     * @param capacity   The maximum number of ids held per generation.
+     * @param ttlSeconds The minimum time an id is remembered, unless evicted by capacity pressure.
+     * @throws IllegalArgumentException If {@code capacity} or {@code ttlSeconds} is not positive.
+     */
+    public DeliveryDeduplicator(int capacity, long ttlSeconds) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+
+        this.capacity = capacity;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+
+        // Keep the load factor at or below 0.5 so probe sequences stay short
+        int slots = Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1;
+        this.current = new long[slots * 2];
+        this.previous = new long[slots * 2];
+        this.currentStartedAt = System.nanoTime();
+    }
+
+    /**
+     * Records the delivery id and reports whether it had already been seen.
+     * A {@code null} or empty id is never considered a duplicate.
+     *
+     * @param deliveryId The value of the {@code X-GitHub-Delivery} header.
+     * @return {@code true} if the id is new, {@code false} if it is a duplicate.
+     */
+    public synchronized boolean markSeen(String deliveryId) {
+        if (deliveryId == null || deliveryId.isEmpty()) {
+            return true;
+        }
+
+        long hi = high(deliveryId);
+        long lo = low(deliveryId);
+        rotateIfNeeded();
+
+        if (contains(current, hi, lo) || contains(previous, hi, lo)) {
+            hits.increment();
+            return false;
+        }
+
+        insert(current, hi, lo);
+        currentSize++;
+        misses.increment();
+        return true;
+    }
+
+    /**
+     * Forgets a delivery id, so a later redelivery is processed again.
+     * Used when a delivery was recorded but could not be accepted.
+     *
+     * @param deliveryId The value of the {@code X-GitHub-Delivery} header.
+     */
+    public synchronized void forget(String deliveryId) {
+        if (deliveryId == null || deliveryId.isEmpty()) {
+            return;
+        }
+
+        long hi = high(deliveryId);
+        long lo = low(deliveryId);
+        remove(current, hi, lo);
+        remove(previous, hi, lo);
+    }
+
+    private void rotateIfNeeded() {
+        long now = System.nanoTime();
+        if (currentSize < capacity && now - currentStartedAt < ttlNanos) {
+            return;
+        }
+
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        previous = current;
+        current = recycled;
+        currentSize = 0;
+        currentStartedAt = now;
+    }
+
+    private static boolean contains(long[] table, long hi, long lo) {
+        int mask = (table.length >> 1) - 1;
+        for (int slot = mix(hi, lo) & mask; ; slot = (slot + 1) & mask) {
+            long slotHi = table[slot << 1];
+            long slotLo = table[(slot << 1) + 1];
+            if (slotHi == 0L && slotLo == 0L) {
+                return false;
+            }
+            if (slotHi == hi && slotLo == lo) {
+                return true;
+            }
+        }
+    }
+
+    private static void insert(long[] table, long hi, long lo) {
+        int mask = (table.length >> 1) - 1;
+        int slot = mix(hi, lo) & mask;
+        while (table[slot << 1] != 0L || table[(slot << 1) + 1] != 0L) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot << 1] = hi;
+        table[(slot << 1) + 1] = lo;
+    }
+
+    private static void remove(long[] table, long hi, long lo) {
+        int mask = (table.length >> 1) - 1;
+        for (int slot = mix(hi, lo) & mask; ; slot = (slot + 1) & mask) {
+            long slotHi = table[slot << 1];
+            long slotLo = table[(slot << 1) + 1];
+            if (slotHi == 0L && slotLo == 0L) {
+                return;
+            }
+            if (slotHi == hi && slotLo == lo) {
+                // Leave a tombstone so later entries in the probe sequence stay reachable
+                table[slot << 1] = 0L;
+                table[(slot << 1) + 1] = TOMBSTONE_LO;
+                return;
+            }
+        }
+    }
+
+    private static int mix(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Derives the high 64 bits of the key. UUIDs are parsed directly; other ids are hashed.
+     * The result is never zero, which is reserved for empty slots and tombstones.
+     */
+    private static long high(String id) {
+        long value = isUuid(id) ? parseHex(id, 0, 18) : hash(id, 0xCBF29CE484222325L);
+        return value == 0L ? 1L : value;
+    }
+
+    /**
+     * Derives the low 64 bits of the key. UUIDs are parsed directly; other ids are hashed.
+     */
+    private static long low(String id) {
+        return isUuid(id) ? parseHex(id, 19, 36) : hash(id, 0x84222325CBF29CE4L);
+    }
+
+    private static boolean isUuid(String id) {
+        if (id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String id, int from, int to) {
+        long value = 0L;
+        for (int i = from; i < to; i++) {
+            char c = id.charAt(i);
+            if (c != '-') {
+                value = (value << 4) | Character.digit(c, 16);
+            }
+        }
+        return value;
+    }
+
+    private static long hash(String id, long seed) {
+        long h = seed;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /**
+     * Returns how many lookups found a delivery id that was already seen.
+     *
+     * @return The number of deliveries recognised as duplicates.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns how many lookups found a new delivery id.
+     *
+     * @return The number of deliveries seen for the first time.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
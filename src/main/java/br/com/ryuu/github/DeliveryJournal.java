@@ -0,0 +1,486 @@
+package br.com.ryuu.github;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only journal of accepted webhook deliveries.
+ * <p>
+ * Every accepted delivery is written as an {@code ACCEPT} record and, once its Discord message was sent,
+ * an {@code ACK} record marks it done. Writes go through a single writer thread that batches whatever is
+ * waiting and issues one {@link FileChannel#force(boolean)} per batch (group commit), so concurrent
+ * requests share an fsync instead of paying one each.
+ * <p>
+ * Records live in segment files that rotate once they exceed the configured size. Sealed segments stay
+ * on disk and are deleted, oldest first, once every {@code ACCEPT} record in them was acknowledged; a
+ * segment is never deleted before an older one, since its {@code ACK} records may still cancel records
+ * there. When less than half of the sealed bytes still belong to pending deliveries, the pending records
+ * are copied into the active segment and every sealed file is deleted. Each compaction thus copies no more
+ * than the dead data it frees, so a long backlog costs linear, not quadratic, disk I/O.
+ * <p>
+ * Record layout: {@code [int length][byte type][long sequence][type-specific data][int crc32]}, where the
+ * CRC covers everything between the length and the CRC itself. A torn record at the end of a segment
+ * is detected by its length or CRC and ignored on recovery.
+ * <p>
+ * A failed write only fails the futures of its batch. If the writer thread itself dies from an unexpected
+ * error, the journal becomes unusable: every pending and later append fails right away instead of waiting
+ * for a writer that will never run again.
+ */
+public class DeliveryJournal implements Closeable {
+
+    private static final byte ACCEPT = 1;
+    private static final byte ACK = 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_BATCH = 1024;
+    private static final double COMPACT_LIVE_RATIO = 0.5;
+
+    /**
+     * The longest delivery id or event type a record can hold, in UTF-8 bytes.
+     */
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+
+    private record Append(byte type, long sequence, ByteBuffer record, CompletableFuture<Long> done) {
+    }
+
+    /**
+     * Where the {@code ACCEPT} record of a pending delivery currently lives, and its size on disk.
+     */
+    private record Location(long segment, int bytes) {
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+    private final List<WebhookDelivery> recovered = new ArrayList<>();
+    private final Thread writer;
+
+    // Confined to the writer thread after construction
+    private final Map<Long, Location> pending = new HashMap<>();
+    private final TreeMap<Long, Long> liveBytes = new TreeMap<>();
+    private final TreeMap<Long, Long> sealed = new TreeMap<>();
+    private FileChannel active;
+    private long activeId;
+    private long activeSize;
+
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+
+    /**
+     * Opens the journal in the given directory, recovering every unacknowledged delivery found there.
+     * Recovered deliveries are available through {@link #takeRecovered()}.
+     *
+     * @param directory    The directory holding the segment files; created if missing.
+     * @param segmentBytes The size after which the active segment is rotated.
+     * @throws IOException If the directory or the segments cannot be read or written.
+     */
+    public DeliveryJournal(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        List<Path> segments = listSegments();
+        Map<Long, ByteBuffer> unacknowledged = new LinkedHashMap<>();
+        long maxSequence = 0;
+        for (Path segment : segments) {
+            maxSequence = Math.max(maxSequence, scan(segment, unacknowledged));
+        }
+        nextSequence.set(maxSequence + 1);
+
+        // Start a fresh segment holding only what is still pending, then drop the old ones
+        long firstId = segments.isEmpty() ? 1 : segmentId(segments.get(segments.size() - 1)) + 1;
+        openSegment(firstId);
+        for (Map.Entry<Long, ByteBuffer> entry : unacknowledged.entrySet()) {
+            ByteBuffer record = entry.getValue();
+            recovered.add(decodeAccept(record.duplicate()).withSequence(entry.getKey()));
+            trackAccept(entry.getKey(), record.remaining());
+            writeFully(record.duplicate());
+        }
+        active.force(false);
+        for (Path segment : segments) {
+            Files.delete(segment);
+        }
+
+        this.writer = Thread.ofPlatform().daemon().name("delivery-journal").start(this::writeLoop);
+    }
+
+    /**
+     * Durably records an accepted delivery.
+     *
+     * @param delivery The delivery to record.
+     * @return A future completed with the journaled delivery, carrying its sequence number, once the record
+     * has been forced to disk; completed exceptionally if the write failed or if the delivery id or event
+     * type is longer than 65535 UTF-8 bytes.
+     */
+    public CompletableFuture<WebhookDelivery> append(WebhookDelivery delivery) {
+        if (fieldBytes(delivery.deliveryId()) > MAX_FIELD_BYTES || fieldBytes(delivery.eventType()) > MAX_FIELD_BYTES) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Delivery id and event type must fit in " + MAX_FIELD_BYTES + " bytes"));
+        }
+        long sequence = nextSequence.getAndIncrement();
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        enqueue(new Append(ACCEPT, sequence, encodeAccept(sequence, delivery), done));
+        return done.thenApply(delivery::withSequence);
+    }
+
+    /**
+     * Marks a delivery as done, so it is not replayed on the next start.
+     * The acknowledgement is written asynchronously with the next batch.
+     *
+     * @param sequence The sequence number of the delivery.
+     */
+    public void acknowledge(long sequence) {
+        if (sequence == WebhookDelivery.NOT_JOURNALED) {
+            return;
+        }
+        enqueue(new Append(ACK, sequence, encode(ACK, sequence, 0), new CompletableFuture<>()));
+    }
+
+    /**
+     * Returns the deliveries recovered when the journal was opened and clears the list.
+     *
+     * @return The unacknowledged deliveries, in the order they were accepted.
+     */
+    public synchronized List<WebhookDelivery> takeRecovered() {
+        List<WebhookDelivery> result = new ArrayList<>(recovered);
+        recovered.clear();
+        return result;
+    }
+
+    /**
+     * Returns whether the writer thread is still able to write, i.e. it did not die from an unexpected error.
+     *
+     * @return {@code false} once the journal became unusable.
+     */
+    public boolean isUsable() {
+        return failure == null;
+    }
+
+    private void enqueue(Append append) {
+        if (failure != null) {
+            append.done().completeExceptionally(new IOException("Journal inutilizável", failure));
+            return;
+        }
+        if (!running) {
+            append.done().completeExceptionally(new IOException("Journal fechado"));
+            return;
+        }
+        appends.add(append);
+
+        // The writer may have died between the check and the add
+        if (failure != null) {
+            failPending();
+        }
+    }
+
+    /**
+     * Writer loop: drains whatever is queued, writes it and forces the file once per batch.
+     * An unexpected error ends the loop and fails everything still queued.
+     */
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            writeBatches(batch);
+        } catch (Throwable e) {
+            System.err.println("Writer do journal encerrado por erro inesperado: " + e);
+            e.printStackTrace();
+            failure = e;
+            running = false;
+            IOException cause = new IOException("Journal inutilizável", e);
+            batch.forEach(append -> append.done().completeExceptionally(cause));
+            failPending();
+        }
+    }
+
+    private void failPending() {
+        IOException cause = new IOException("Journal inutilizável", failure);
+        Append append;
+        while ((append = appends.poll()) != null) {
+            append.done().completeExceptionally(cause);
+        }
+    }
+
+    private void writeBatches(List<Append> batch) {
+        while (running || !appends.isEmpty()) {
+            try {
+                Append first = appends.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                appends.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                running = false;
+                continue;
+            }
+
+            try {
+                for (Append append : batch) {
+                    write(append);
+                }
+                active.force(false);
+                batch.forEach(append -> append.done().complete(append.sequence()));
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar journal: " + e.getMessage());
+                batch.forEach(append -> append.done().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(Append append) throws IOException {
+        int bytes = append.record().remaining();
+        if (append.type() == ACCEPT && activeSize > 0 && activeSize + bytes > segmentBytes) {
+            rotate();
+        }
+
+        writeFully(append.record());
+        if (append.type() == ACCEPT) {
+            trackAccept(append.sequence(), bytes);
+        } else {
+            Location location = pending.remove(append.sequence());
+            if (location != null) {
+                liveBytes.merge(location.segment(), (long) -location.bytes(),
+                        (live, delta) -> live + delta == 0 ? null : live + delta);
+                deleteAcknowledgedSegments();
+            }
+        }
+    }
+
+    /**
+     * Seals the active segment and opens a new one, then compacts the sealed segments if most of their
+     * bytes belong to acknowledged deliveries.
+     */
+    private void rotate() throws IOException {
+        active.force(false);
+        active.close();
+        sealed.put(activeId, activeSize);
+        openSegment(activeId + 1);
+        deleteAcknowledgedSegments();
+
+        long sealedBytes = 0;
+        long sealedLiveBytes = 0;
+        for (Map.Entry<Long, Long> segment : sealed.entrySet()) {
+            sealedBytes += segment.getValue();
+            sealedLiveBytes += liveBytes.getOrDefault(segment.getKey(), 0L);
+        }
+        if (sealedBytes > 0 && sealedLiveBytes < sealedBytes * COMPACT_LIVE_RATIO) {
+            compact();
+        }
+    }
+
+    /**
+     * Copies the pending records of every sealed segment into the active one and deletes the sealed files.
+     */
+    private void compact() throws IOException {
+        for (long segment : sealed.keySet()) {
+            if (!liveBytes.containsKey(segment)) {
+                continue;
+            }
+            Map<Long, ByteBuffer> records = new LinkedHashMap<>();
+            scan(segmentPath(segment), records);
+            for (Map.Entry<Long, ByteBuffer> entry : records.entrySet()) {
+                Location location = pending.get(entry.getKey());
+                if (location != null && location.segment() == segment) {
+                    trackAccept(entry.getKey(), location.bytes());
+                    writeFully(entry.getValue());
+                }
+            }
+            liveBytes.remove(segment);
+        }
+
+        // The copies must be durable before the originals go
+        active.force(false);
+        for (long segment : sealed.keySet()) {
+            Files.delete(segmentPath(segment));
+        }
+        sealed.clear();
+    }
+
+    /**
+     * Deletes the oldest sealed segments as long as none of their records is pending.
+     */
+    private void deleteAcknowledgedSegments() {
+        while (!sealed.isEmpty() && !liveBytes.containsKey(sealed.firstKey())) {
+            long segment = sealed.firstKey();
+            try {
+                Files.deleteIfExists(segmentPath(segment));
+            } catch (IOException e) {
+                System.err.println("Erro ao apagar segmento do journal " + segment + ": " + e.getMessage());
+                return;
+            }
+            sealed.remove(segment);
+        }
+    }
+
+    private void openSegment(long id) throws IOException {
+        active = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        activeId = id;
+        activeSize = 0;
+    }
+
+    private void trackAccept(long sequence, int bytes) {
+        Location previous = pending.put(sequence, new Location(activeId, bytes));
+        if (previous != null) {
+            liveBytes.merge(previous.segment(), (long) -bytes, (live, delta) -> live + delta == 0 ? null : live + delta);
+        }
+        liveBytes.merge(activeId, (long) bytes, Long::sum);
+    }
+
+    private void writeFully(ByteBuffer record) throws IOException {
+        while (record.hasRemaining()) {
+            activeSize += active.write(record);
+        }
+    }
+
+    /**
+     * Reads a segment, adding every valid {@code ACCEPT} record to {@code pending} and removing every
+     * acknowledged one. Reading stops at the first truncated or corrupt record.
+     *
+     * @return The highest sequence number seen in the segment.
+     */
+    private static long scan(Path segment, Map<Long, ByteBuffer> pending) throws IOException {
+        long maxSequence = 0;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= 4) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < 9 || length + 4 > buffer.remaining()) {
+                    break;
+                }
+
+                ByteBuffer data = buffer.slice(start + 4, length);
+                CRC32 crc = new CRC32();
+                crc.update(data.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(start + 4 + length)) {
+                    System.err.println("Registro corrompido no journal " + segment + ", ignorando o restante");
+                    break;
+                }
+
+                byte type = data.get(0);
+                long sequence = data.getLong(1);
+                maxSequence = Math.max(maxSequence, sequence);
+                if (type == ACCEPT) {
+                    ByteBuffer copy = ByteBuffer.allocate(length + 8);
+                    copy.put(buffer.slice(start, length + 8)).flip();
+                    pending.put(sequence, copy);
+                } else if (type == ACK) {
+                    pending.remove(sequence);
+                }
+                buffer.position(start + 4 + length + 4);
+            }
+        }
+        return maxSequence;
+    }
+
+    private static ByteBuffer encodeAccept(long sequence, WebhookDelivery delivery) {
+        byte[] id = (delivery.deliveryId() == null ? "" : delivery.deliveryId()).getBytes(StandardCharsets.UTF_8);
+        byte[] event = delivery.eventType().getBytes(StandardCharsets.UTF_8);
+        byte[] body = delivery.body();
+
+        ByteBuffer record = encode(ACCEPT, sequence, 2 + id.length + 2 + event.length + 4 + body.length);
+        record.position(13);
+        // Both lengths are unsigned shorts; append() refuses longer fields
+        record.putShort((short) id.length).put(id)
+                .putShort((short) event.length).put(event)
+                .putInt(body.length).put(body);
+        return seal(record);
+    }
+
+    /**
+     * Allocates a record with its header filled in. Records without extra data are returned sealed.
+     */
+    private static ByteBuffer encode(byte type, long sequence, int dataLength) {
+        int length = 1 + 8 + dataLength;
+        ByteBuffer record = ByteBuffer.allocate(4 + length + 4);
+        record.putInt(length).put(type).putLong(sequence);
+        return dataLength == 0 ? seal(record) : record;
+    }
+
+    private static ByteBuffer seal(ByteBuffer record) {
+        int length = record.getInt(0);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, length);
+        record.putInt(4 + length, (int) crc.getValue());
+        record.clear();
+        return record;
+    }
+
+    private static WebhookDelivery decodeAccept(ByteBuffer record) {
+        record.position(13);
+        byte[] id = new byte[Short.toUnsignedInt(record.getShort())];
+        record.get(id);
+        byte[] event = new byte[Short.toUnsignedInt(record.getShort())];
+        record.get(event);
+        byte[] body = new byte[record.getInt()];
+        record.get(body);
+
+        String deliveryId = id.length == 0 ? null : new String(id, StandardCharsets.UTF_8);
+        return new WebhookDelivery(deliveryId, new String(event, StandardCharsets.UTF_8), body, System.nanoTime());
+    }
+
+    private static int fieldBytes(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort((a, b) -> Long.compare(segmentId(a), segmentId(b)));
+        return segments;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Stops the writer after flushing everything already queued and closes the active segment.
+     *
+     * @throws IOException If the active segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        active.close();
+    }
+}
@@ -0,0 +1,187 @@
+package br.com.ryuu.github;
+
+import br.com.ryuu.github.payload.PushPayload;
+import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Merges bursts of pushes to the same repository and branch into a single notification.
+ * <p>
+ * Every (repository, branch) has its own pending batch and its own debounce deadline, so pushes to
+ * different branches are buffered side by side without cutting each other's batch short. A batch is
+ * emitted as one merged {@link PushPayload} once no push arrived for its key within the window, or as
+ * soon as it reaches the maximum batch size. Batches of the same key leave in the order they were formed.
+ */
+public class PushCoalescer {
+
+    private static final String ZERO_SHA = "0000000000000000000000000000000000000000";
+
+    /**
+     * The pushes buffered for one (repository, branch), and the task that emits them when the window expires.
+     */
+    private static final class Batch {
+        final List<PushPayload> pushes = new ArrayList<>();
+        final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        ScheduledFuture<?> deadline;
+    }
+
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Function<PushPayload, CompletableFuture<Void>> emitter;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Batch> pending = new LinkedHashMap<>();
+
+    /**
+     * Constructs a new instance of the {@code PushCoalescer} class.
+     *
+     * @param windowMillis The debounce window; a batch is emitted once no push arrived for its key for this long.
+     * @param maxBatchSize The maximum number of pushes merged into one notification.
+     * @param emitter      The callback that sends each merged push and returns a future completed once it was sent.
+     * @throws IllegalArgumentException If {@code windowMillis} or {@code maxBatchSize} is not positive.
+     * @throws NullPointerException     If {@code emitter} is {@code null}.
+     */
+    public PushCoalescer(long windowMillis, int maxBatchSize, Function<PushPayload, CompletableFuture<Void>> emitter) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Coalescing window must be positive");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive");
+        }
+        if (emitter == null) {
+            throw new NullPointerException("Emitter cannot be null");
+        }
+
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.emitter = emitter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("push-coalescer").factory());
+    }
+
+    /**
+     * Adds a push to the batch of its repository and branch and restarts that batch's deadline.
+     *
+     * @param push The push to buffer.
+     * @return A future completed once the merged notification containing this push was sent.
+     */
+    public synchronized CompletableFuture<Void> submit(PushPayload push) {
+        String key = push.repoName() + '\0' + push.ref();
+        Batch batch = pending.computeIfAbsent(key, ignored -> new Batch());
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        batch.pushes.add(push);
+        batch.waiters.add(done);
+
+        if (batch.pushes.size() >= maxBatchSize) {
+            flush(key, batch);
+        } else {
+            if (batch.deadline != null) {
+                batch.deadline.cancel(false);
+            }
+            batch.deadline = scheduler.schedule(() -> flush(key, batch), windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return done;
+    }
+
+    /**
+     * Emits every pending batch immediately, oldest key first.
+     */
+    public synchronized void flush() {
+        List<Map.Entry<String, Batch>> batches = new ArrayList<>(pending.entrySet());
+        for (Map.Entry<String, Batch> entry : batches) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Emits a batch if it is still the pending one of its key; a deadline that fired after its batch was
+     * already emitted does nothing. Emission happens under the lock so batches of a key always leave in the
+     * order they were formed; the emitter is expected to hand off quickly (e.g. queue a Discord request).
+     */
+    private synchronized void flush(String key, Batch batch) {
+        if (pending.get(key) != batch) {
+            return;
+        }
+        pending.remove(key);
+        if (batch.deadline != null) {
+            batch.deadline.cancel(false);
+        }
+
+        CompletableFuture<Void> sent;
+        try {
+            sent = emitter.apply(merge(batch.pushes));
+        } catch (Exception e) {
+            System.err.println("Erro ao emitir push agrupado: " + e.getMessage());
+            e.printStackTrace();
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((ignored, error) -> batch.waiters.forEach(waiter -> {
+            if (error != null) {
+                waiter.completeExceptionally(error);
+            } else {
+                waiter.complete(null);
+            }
+        }));
+    }
+
+    /**
+     * Flushes the pending batches and stops the debounce scheduler.
+     */
+    public void close() {
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Merges consecutive pushes to the same branch: commits are concatenated in order and the compare
+     * range goes from the state before the first push to the state after the last one. When the batch
+     * creates or deletes the branch, the compare URL GitHub sent with the first or last push is kept.
+     *
+     * @param pushes The pushes to merge, oldest first.
+     * @return A single {@link PushPayload} covering all of them.
+     */
+    static PushPayload merge(List<PushPayload> pushes) {
+        PushPayload first = pushes.get(0);
+        if (pushes.size() == 1) {
+            return first;
+        }
+        PushPayload last = pushes.get(pushes.size() - 1);
+
+        Set<String> pushers = new LinkedHashSet<>();
+        List<CommitInfo> commits = new ArrayList<>();
+        for (PushPayload push : pushes) {
+            pushers.add(push.pusher());
+            commits.addAll(push.commits());
+        }
+
+        // A batch that creates the branch has no base commit, and one that deletes it has no head;
+        // GitHub's own compare URLs cover those cases
+        String compareUrl;
+        if (ZERO_SHA.equals(first.before())) {
+            compareUrl = first.compareUrl();
+        } else if (first.repoUrl() == null || first.before() == null || last.after() == null
+                || ZERO_SHA.equals(last.after())) {
+            compareUrl = last.compareUrl();
+        } else {
+            compareUrl = first.repoUrl() + "/compare/" + shortSha(first.before()) + "..." + shortSha(last.after());
+        }
+
+        return new PushPayload(first.repoName(), first.repoUrl(), String.join(", ", pushers), first.ref(),
+                first.before(), last.after(), compareUrl, commits);
+    }
+
+    private static String shortSha(String sha) {
+        return sha.length() > 12 ? sha.substring(0, 12) : sha;
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.ryuu.github;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Verifies the {@code X-Hub-Signature-256} header GitHub sends with every delivery.
+ * <p>
+ * The HMAC-SHA256 is computed over the raw body while it is read and compared in constant time. A request that
+ * fails verification costs one hash and is never parsed or queued.
+ * <p>
+ * Keyed {@link Mac}s are kept in a small pool shared by all threads rather than one per thread, because ingress
+ * requests may each run on a new virtual thread. A borrowed {@code Mac} goes back to the pool in
+ * {@link #verify(Mac, String)}; when the pool is empty the keyed prototype is cloned, so the key schedule is
+ * only computed once.
+ */
+public final class SignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+    private static final int DIGEST_HEX_LENGTH = 64;
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final ArrayBlockingQueue<Mac> idle = new ArrayBlockingQueue<>(
+            Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Constructs a verifier for the given webhook secret.
+     *
+     * @param secret The secret configured on the GitHub webhook.
+     * @throws NullPointerException     If {@code secret} is {@code null}.
+     * @throws IllegalArgumentException If {@code secret} is empty.
+     */
+    public SignatureVerifier(String secret) {
+        if (secret == null) {
+            throw new NullPointerException("Webhook secret cannot be null");
+        }
+        if (secret.isEmpty()) {
+            throw new IllegalArgumentException("Webhook secret cannot be empty");
+        }
+
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.prototype = newMac();
+    }
+
+    /**
+     * Borrows a keyed {@link Mac}, reset and ready to receive the body of a new request.
+     * A {@code Mac} whose request is abandoned before {@link #verify(Mac, String)} is simply not returned.
+     *
+     * @return A {@code Mac} from the pool, or a clone of the keyed prototype if the pool is empty.
+     */
+    public Mac begin() {
+        Mac mac = idle.poll();
+        if (mac == null) {
+            return copyPrototype();
+        }
+        mac.reset();
+        return mac;
+    }
+
+    private Mac copyPrototype() {
+        try {
+            synchronized (prototype) {
+                return (Mac) prototype.clone();
+            }
+        } catch (CloneNotSupportedException e) {
+            // Providers that cannot clone a Mac get a freshly keyed instance instead
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+
+    /**
+     * Checks whether a header value has the shape of a signature, without hashing anything.
+     *
+     * @param header The {@code X-Hub-Signature-256} header value, possibly {@code null}.
+     * @return {@code true} if the header is {@code sha256=} followed by 64 characters.
+     */
+    public static boolean isWellFormed(String header) {
+        return header != null && header.length() == PREFIX.length() + DIGEST_HEX_LENGTH && header.startsWith(PREFIX);
+    }
+
+    /**
+     * Completes the digest fed through {@link #begin()} and compares it with the header in constant time.
+     *
+     * @param mac    The {@code Mac} returned by {@link #begin()}, after the whole body was fed to it; it goes
+     *               back to the pool and must not be used afterwards.
+     * @param header The {@code X-Hub-Signature-256} header value.
+     * @return {@code true} if the signature matches the body.
+     */
+    public boolean verify(Mac mac, String header) {
+        byte[] actual = mac.doFinal();
+        idle.offer(mac);
+        if (!isWellFormed(header)) {
+            return false;
+        }
+
+        byte[] expected;
+        try {
+            expected = HexFormat.of().parseHex(header, PREFIX.length(), header.length());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(actual, expected);
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.ryuu.github;
+
+/**
+ * Represents a single webhook delivery accepted from GitHub and waiting to be processed.
+ *
+ * @param deliveryId       The value of the {@code X-GitHub-Delivery} header, or {@code null} if absent.
+ * @param eventType        The value of the {@code X-GitHub-Event} header.
+ * @param body             The raw request body bytes.
+ * @param receivedAtNanos  The {@link System#nanoTime()} at which the delivery was accepted.
+ * @param sequence         The sequence number assigned by the {@link DeliveryJournal}, or
+ *                         {@link #NOT_JOURNALED} if the delivery was not journaled.
+ */
+public record WebhookDelivery(String deliveryId, String eventType, byte[] body, long receivedAtNanos,
+                              long sequence) {
+
+    /**
+     * Sequence value of a delivery that has no journal entry.
+     */
+    public static final long NOT_JOURNALED = -1L;
+
+    /**
+     * Creates a delivery that has not been journaled yet.
+     *
+     * @param deliveryId      The value of the {@code X-GitHub-Delivery} header, or {@code null} if absent.
+     * @param eventType       The value of the {@code X-GitHub-Event} header.
+     * @param body            The raw request body bytes.
+     * @param receivedAtNanos The {@link System#nanoTime()} at which the delivery was accepted.
+     */
+    public WebhookDelivery(String deliveryId, String eventType, byte[] body, long receivedAtNanos) {
+        this(deliveryId, eventType, body, receivedAtNanos, NOT_JOURNALED);
+    }
+
+    /**
+     * Returns a copy of this delivery carrying the given journal sequence number.
+     *
+     * @param sequence The sequence number assigned by the {@link DeliveryJournal}.
+     * @return A new {@code WebhookDelivery} with the given sequence.
+     */
+    public WebhookDelivery withSequence(long sequence) {
+        return new WebhookDelivery(deliveryId, eventType, body, receivedAtNanos, sequence);
+    }
+}
@@ -1,236 +1,745 @@
 package br.com.ryuu.github;
 
 import br.com.ryuu.config.Config;
-import br.com.ryuu.utils.DiscordEmbedBuilder;
-import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
-import spark.Spark;
-
-import java.util.ArrayList;
+import br.com.ryuu.config.ConfigSnapshot;
+import br.com.ryuu.discord.DeadLetterStore;
+import br.com.ryuu.discord.DiscordDispatcher;
+import br.com.ryuu.discord.DiscordGateway;
+import br.com.ryuu.github.api.GitHubApiClient;
+import br.com.ryuu.github.api.PushEnricher;
+import br.com.ryuu.github.handlers.ForkHandler;
+import br.com.ryuu.github.handlers.HandlerRegistry;
+import br.com.ryuu.github.handlers.IssueHandler;
+import br.com.ryuu.github.handlers.PullRequestHandler;
+import br.com.ryuu.github.handlers.PushHandler;
+import br.com.ryuu.github.handlers.ReleaseHandler;
+import br.com.ryuu.github.handlers.StarHandler;
+import br.com.ryuu.github.ingress.IngressResponse;
+import br.com.ryuu.github.ingress.IngressServer;
+import br.com.ryuu.github.ingress.IngressSettings;
+import br.com.ryuu.github.ingress.JdkIngressServer;
+import br.com.ryuu.github.ingress.SparkIngressServer;
+import br.com.ryuu.github.ingress.UnsupportedContentEncodingException;
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.github.payload.PayloadTooLargeException;
+import br.com.ryuu.metrics.Counter;
+import br.com.ryuu.metrics.Histogram;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+import br.com.ryuu.routing.RoutingTable;
+import br.com.ryuu.utils.EmbedTemplates;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.zip.ZipException;
 
 public class WebhookHandler {
-    private final JDA jda;
-    private final String channelId;
+    private static final MetricVec<Counter> REQUESTS = Metrics.counterVec("ryuu_webhook_requests_total",
+            "Webhook requests by outcome", "outcome");
+    private static final MetricVec<Counter> UNHANDLED_EVENTS = Metrics.counterVec("ryuu_webhook_unhandled_events_total",
+            "Deliveries whose event type has no handler", "event");
+    private static final MetricVec<Counter> FAILED_EVENTS = Metrics.counterVec("ryuu_webhook_failed_events_total",
+            "Deliveries whose processing threw an exception", "event");
+    private static final MetricVec<Counter> SIGNATURE_REJECTIONS = Metrics.counterVec(
+            "ryuu_webhook_signature_rejections_total", "Requests rejected by X-Hub-Signature-256 verification",
+            "reason");
+    private static final MetricVec<Histogram> BODY_READ = Metrics.histogramVec("ryuu_stage_duration_seconds",
+            "Time spent in each processing stage", "event", "stage", "body_read");
+    private static final MetricVec<Histogram> HANDLER_DURATION = Metrics.histogramVec("ryuu_stage_duration_seconds",
+            "Time spent in each processing stage", "event", "stage", "handle");
+
+    // GitHub sends a UUID; anything far longer is not a delivery id and would not fit a journal record
+    private static final int MAX_DELIVERY_ID_LENGTH = 256;
+
+    private volatile RoutingTable routingTable;
+    private final DiscordDispatcher dispatcher;
+    private final WebhookQueue queue;
+    private final DeliveryDeduplicator deduplicator;
+    private final HandlerRegistry handlers;
+    private final DeliveryJournal journal;
+    private final DeadLetterStore deadLetters;
+    private final ActivityAggregator activity;
+    private final IngressServer ingress;
+    private final long journalTimeoutMillis;
+    private volatile SignatureVerifier signatureVerifier;
+    private volatile int maxBodyBytes;
+    private volatile boolean discordReady;
 
     /**
      * Constructs a new instance of the {@code WebhookHandler} class.
-     * This class is responsible for handling incoming webhooks from GitHub and posting relevant information to a Discord channel.
+     * This class is responsible for handling incoming webhooks from GitHub and posting relevant information to the Discord channels selected by the {@link RoutingTable}.
+     * The HTTP endpoints start accepting deliveries immediately; they are buffered in the {@link WebhookQueue}
+     * until {@link #onDiscordReady()} is called, so the JDA session or shards may still be logging in.
+     * Deliveries recovered from the journal are queued before the endpoints open and are processed first.
      *
-     * @param jda The JDA instance representing the Discord bot.
-     * @throws NullPointerException If the provided {@code jda} is {@code null}.
+     * @param gateway      The gateway used to send messages to Discord.
+     * @param journal      The journal that makes accepted deliveries durable, or {@code null} to disable journaling.
+     * @param deadLetters  The store for embeds that could not be delivered after every retry, or {@code null}
+     *                     to keep their deliveries in the journal instead.
+     * @param routingTable The routing index that selects the target channels of each event.
+     * @throws NullPointerException If the provided {@code gateway} or {@code routingTable} is {@code null}.
+     * @throws IOException          If the ingress server cannot listen on its port.
      */
-    public WebhookHandler(JDA jda) {
-        if (jda == null) {
-            throw new NullPointerException("JDA instance cannot be null");
+    public WebhookHandler(DiscordGateway gateway, DeliveryJournal journal, DeadLetterStore deadLetters,
+                          RoutingTable routingTable) throws IOException {
+        if (gateway == null) {
+            throw new NullPointerException("Discord gateway cannot be null");
         }
+        if (routingTable == null) {
+            throw new NullPointerException("Routing table cannot be null");
+        }
+
+        // Compile the template sets named in the routes now, so a broken template fails the start
+        routingTable.getTemplateNames().forEach(EmbedTemplates::named);
 
-        this.jda = jda;
-        this.channelId = Config.getChannelId();
+        this.journal = journal;
+        this.journalTimeoutMillis = Config.getInt("JOURNAL_APPEND_TIMEOUT_MS", 5000);
+        this.deadLetters = deadLetters;
+        this.routingTable = routingTable;
+        this.dispatcher = new DiscordDispatcher(gateway,
+                Config.getInt("DISCORD_CHANNEL_RATE_LIMIT", 5),
+                Config.getInt("DISCORD_CHANNEL_RATE_WINDOW_MS", 5000),
+                Config.getInt("DISCORD_SEND_MAX_ATTEMPTS", 6),
+                Config.getInt("DISCORD_RETRY_BASE_MS", 1000),
+                Config.getInt("DISCORD_RETRY_MAX_MS", 60000),
+                deadLetters);
+        this.activity = createActivityAggregator();
+        this.signatureVerifier = createSignatureVerifier(Config.current().getWebhookSecret());
+        this.maxBodyBytes = Config.current().getMaxBodyBytes();
+        this.queue = new WebhookQueue(
+                Config.getInt("WEBHOOK_QUEUE_CAPACITY", 1000),
+                Config.getInt("WEBHOOK_WORKERS", 4),
+                WebhookQueue.OverflowPolicy.valueOf(Config.get("WEBHOOK_OVERFLOW_POLICY", "REJECT").toUpperCase()),
+                Config.getInt("WEBHOOK_QUEUE_BLOCK_TIMEOUT_MS", 5000),
+                this::processWebhook,
+                this::onEvicted);
+        this.handlers = new HandlerRegistry()
+                .register(new PushHandler(this::send,
+                        Config.getInt("PUSH_COALESCE_WINDOW_MS", 0),
+                        Config.getInt("PUSH_COALESCE_MAX_BATCH", 10),
+                        createPushEnricher()))
+                .register(new StarHandler(this::send, activity))
+                .register(new ForkHandler(this::send, activity))
+                .register(new ReleaseHandler(this::send))
+                .register(new PullRequestHandler(this::send))
+                .register(new IssueHandler(this::send));
+        this.deduplicator = new DeliveryDeduplicator(
+                Config.getInt("DEDUP_CAPACITY", 20000),
+                Config.getInt("DEDUP_TTL_SECONDS", 3600));
+        this.ingress = createIngressServer();
+        registerMetrics();
+        if (journal != null) {
+            replay(journal.takeRecovered());
+        }
         setupEndpoints();
+        Config.addReloadListener(this::prepareReload);
     }
 
     /**
-     * Sets up the necessary endpoints for handling incoming webhooks from GitHub.
-     * This method configures the Spark framework to listen for POST requests at the "/webhook" endpoint.
-     * When a request is received, it extracts the event type and payload from the request headers and body,
-     * and then calls the {@link #processWebhook(String, String)} method to handle the webhook.
-     * Finally, it logs a message indicating that the webhook server has started on the specified port.
+     * Prepares the routing table, the signature verifier and the body limit of a reloaded configuration.
+     * The routes file and the template sets it names are compiled here, so an invalid file aborts the reload
+     * and the current routing stays in place. Deliveries already queued keep being processed throughout.
+     *
+     * @param next The new configuration snapshot.
+     * @return The action that switches to the prepared state.
+     * @throws Exception If the routes file or a template set is invalid.
      */
-    private void setupEndpoints() {
-        // Retrieve the port number from the configuration or use a default value of 8080
-        int port = Integer.parseInt(Config.get("PORT", "8080"));
+    private Runnable prepareReload(ConfigSnapshot next) throws Exception {
+        RoutingTable nextRoutes = RoutingTable.fromConfig(next);
+        nextRoutes.getTemplateNames().forEach(EmbedTemplates::named);
+
+        SignatureVerifier nextVerifier = next.getWebhookSecret().equals(Config.current().getWebhookSecret())
+                ? signatureVerifier
+                : createSignatureVerifier(next.getWebhookSecret());
+        int nextMaxBodyBytes = next.getMaxBodyBytes();
 
-        // Set the port for the Spark framework
-        Spark.port(port);
+        return () -> {
+            routingTable = nextRoutes;
+            signatureVerifier = nextVerifier;
+            maxBodyBytes = nextMaxBodyBytes;
+        };
+    }
 
+    /**
+     * Sets up the necessary endpoints for handling incoming webhooks from GitHub.
+     * This method registers a POST route on the {@link IngressServer} at the "/webhook" endpoint.
+     * When a request is received, it validates the event type and payload, hands the delivery to the
+     * {@link WebhookQueue} and answers 202 right away; {@link #processWebhook(WebhookDelivery)} runs later
+     * on a queue worker. If the queue refuses the delivery, the endpoint answers 503 so GitHub retries it.
+     * Event types without a handler in the {@link HandlerRegistry} are answered 202 from the headers alone.
+     * When {@code WEBHOOK_SECRET} is set, the {@code X-Hub-Signature-256} header is verified over the raw body
+     * as it is read and unsigned or badly signed requests are answered 401 before any JSON is parsed.
+     * The verifier and the body limit are read once per request, so a configuration reload never applies
+     * half-way through a delivery.
+     * Deliveries whose {@code X-GitHub-Delivery} id was already accepted are answered 200 and not queued again;
+     * an id longer than 256 characters is answered 400, since the header is not covered by the signature.
+     * When a {@link DeliveryJournal} is configured, the delivery is journaled before the 202 is sent; if the
+     * write fails or takes longer than JOURNAL_APPEND_TIMEOUT_MS the endpoint answers 503 instead.
+     * Bodies sent with {@code Content-Encoding: gzip} are inflated as they are read; the signature and the body
+     * limit apply to the inflated payload, so a small compressed body cannot expand past the limit.
+     * Finally, it starts the {@link IngressServer} and logs the port it listens on.
+     *
+     * @throws IOException If the ingress server cannot listen on its port.
+     */
+    private void setupEndpoints() throws IOException {
         // Define a POST endpoint for handling webhooks
-        Spark.post("/webhook", (request, response) -> {
+        ingress.post("/webhook", (request, response) -> {
             // Extract the event type and payload from the request headers and body
-            String eventType = request.headers("X-GitHub-Event");
-            String payload = request.body();
+            String eventType = request.header("X-GitHub-Event");
+
+            // Reject requests that are not GitHub deliveries before reading the body
+            if (eventType == null || eventType.isEmpty()) {
+                return respond(response, 400, "missing_event", "Missing X-GitHub-Event header");
+            }
+
+            String deliveryId = request.header("X-GitHub-Delivery");
+            if (deliveryId != null && deliveryId.length() > MAX_DELIVERY_ID_LENGTH) {
+                return respond(response, 400, "bad_delivery_id", "X-GitHub-Delivery header too long");
+            }
 
-            // Process the webhook by calling the processWebhook method
-            processWebhook(eventType, payload);
+            // Events nobody handles are acknowledged without reading the body
+            if (!handlers.isSubscribed(eventType)) {
+                UNHANDLED_EVENTS.labels(eventType).inc();
+                return respond(response, 202, "unsubscribed", "Event not handled");
+            }
+
+            // Without a well-formed signature header there is nothing to verify, so skip reading the body
+            SignatureVerifier verifier = signatureVerifier;
+            String signature = request.header("X-Hub-Signature-256");
+            if (verifier != null && !SignatureVerifier.isWellFormed(signature)) {
+                SIGNATURE_REJECTIONS.labels("missing").inc();
+                return respond(response, 401, "bad_signature", "Missing or malformed X-Hub-Signature-256 header");
+            }
+
+            // Read the body, hashing it on the way in when signatures are verified
+            Mac mac = verifier != null ? verifier.begin() : null;
+            byte[] payload;
+            long readStart = System.nanoTime();
+            try {
+                payload = PayloadExtractor.readBody(request.body(), request.contentLength(), maxBodyBytes, mac);
+            } catch (PayloadTooLargeException e) {
+                return respond(response, 413, "too_large", "Payload too large");
+            } catch (UnsupportedContentEncodingException e) {
+                return respond(response, 415, "unsupported_encoding", "Unsupported Content-Encoding");
+            } catch (ZipException e) {
+                return respond(response, 400, "bad_encoding", "Malformed gzip body");
+            }
+            BODY_READ.labels(eventType).recordSince(readStart);
+
+            if (mac != null && !verifier.verify(mac, signature)) {
+                SIGNATURE_REJECTIONS.labels("invalid").inc();
+                return respond(response, 401, "bad_signature", "Invalid signature");
+            }
+            if (payload.length == 0) {
+                return respond(response, 400, "empty_body", "Empty payload");
+            }
+
+            // Drop redeliveries of something already accepted; only authenticated ids reach the cache
+            if (!deduplicator.markSeen(deliveryId)) {
+                return respond(response, 200, "duplicate", "Duplicate delivery ignored");
+            }
+
+            // Make the delivery durable before acknowledging it to GitHub
+            WebhookDelivery delivery = new WebhookDelivery(deliveryId, eventType, payload, System.nanoTime());
+            if (journal != null) {
+                CompletableFuture<WebhookDelivery> append = journal.append(delivery);
+                try {
+                    delivery = append.get(journalTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException | InterruptedException e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    // GitHub retries the 503, so a record written after the timeout must not be replayed too
+                    append.thenAccept(this::acknowledge);
+                    deduplicator.forget(deliveryId);
+                    return respond(response, 503, "journal_error", "Webhook journal unavailable");
+                }
+            }
+
+            // Hand the delivery to the queue; processing happens on a worker thread
+            if (!queue.offer(delivery)) {
+                deduplicator.forget(deliveryId);
+                acknowledge(delivery);
+                response.header("Retry-After", "10");
+                return respond(response, 503, "queue_full", "Webhook queue is full");
+            }
+
+            // Set the response status code to 202 and return a success message
+            return respond(response, 202, "accepted", "Webhook accepted");
+        });
+
+        // Liveness: the ingress is up whenever this answers; Discord readiness is reported separately
+        ingress.get("/health", (request, response) -> {
+            response.type("application/json");
+            return healthJson();
+        });
 
-            // Set the response status code to 200 and return a success message
-            response.status(200);
-            return "Webhook received";
+        // Readiness: only 200 once deliveries are actually being delivered to Discord
+        ingress.get("/ready", (request, response) -> {
+            response.type("application/json");
+            response.status(discordReady ? 200 : 503);
+            return healthJson();
         });
 
-        // Log a message indicating that the webhook server has started on the specified port
-        System.out.println("Webhook server started on port " + port);
+        // Prometheus scrape endpoint
+        ingress.get("/metrics", (request, response) -> {
+            response.type("text/plain; version=0.0.4");
+            return Metrics.scrape();
+        });
+
+        // Admin endpoints, only exposed when an admin token is configured
+        if (!Config.current().getAdminToken().isEmpty()) {
+            setupAdminEndpoints();
+        }
+
+        // Start listening and log the port the webhook server is bound to
+        ingress.start();
+        System.out.println("Webhook server started on port " + ingress.port());
     }
 
     /**
-     * Processes the incoming webhook from GitHub based on the event type and payload.
-     *
-     * @param eventType The type of event that triggered the webhook.
-     * @param payload   The payload containing the details of the event.
-     * @throws Exception If an error occurs while processing the webhook.
+     * Sets up the admin endpoints, all of which require an {@code Authorization: Bearer <ADMIN_TOKEN>} header
+     * checked against the current configuration.
+     * {@code POST /admin/config/reload} reloads the .env file and answers 400 if it is invalid.
+     * When a dead letter store is configured, {@code GET /admin/dead-letters} lists the stored dead letters and
+     * {@code POST /admin/dead-letters/redrive} sends them again, either all of them or the ones listed in
+     * the {@code ids} query parameter. Re-driven embeds that fail again return to the store.
      */
-    private void processWebhook(String eventType, String payload) {
-        try {
-            JsonObject json = JsonParser.parseString(payload).getAsJsonObject();
-            TextChannel channel = jda.getTextChannelById(channelId);
-
-            // Check if the channel exists
-            if (channel == null) {
-                System.err.println("Canal não encontrado: " + channelId);
-                return;
-            }
-
-            // Switch statement to handle different event types
-            switch (eventType) {
-                case "push":
-                    handlePushEvent(json, channel);
-                    break;
-                case "star":
-                    handleStarEvent(json, channel);
-                    break;
-                case "fork":
-                    handleForkEvent(json, channel);
-                    break;
-                case "release":
-                    handleReleaseEvent(json, channel);
-                    break;
-                default:
-                    System.out.println("Evento não processado: " + eventType);
+    private void setupAdminEndpoints() {
+        ingress.post("/admin/config/reload", adminOnly((request, response) -> {
+            Set<String> changed;
+            try {
+                changed = Config.reload();
+            } catch (Exception e) {
+                response.status(400);
+                return "Invalid configuration: " + e.getMessage();
             }
-        } catch (Exception e) {
-            System.err.println("Erro ao processar webhook: " + e.getMessage());
-            e.printStackTrace();
+
+            DataArray keys = DataArray.empty();
+            changed.forEach(keys::add);
+            response.type("application/json");
+            return DataObject.empty().put("changed", keys).toString();
+        }));
+
+        if (deadLetters == null) {
+            return;
         }
+
+        ingress.get("/admin/dead-letters", adminOnly((request, response) -> {
+            DataArray entries = DataArray.empty();
+            for (DeadLetterStore.DeadLetter entry : deadLetters.list()) {
+                entries.add(DataObject.empty()
+                        .put("id", entry.id())
+                        .put("channelId", Long.toString(entry.channelId()))
+                        .put("failedAt", entry.failedAtMillis())
+                        .put("attempts", entry.attempts())
+                        .put("error", entry.error())
+                        .put("embed", entry.embed().toData()));
+            }
+            response.type("application/json");
+            return entries.toString();
+        }));
+
+        ingress.post("/admin/dead-letters/redrive", adminOnly((request, response) -> {
+            Set<Long> ids = null;
+            String idsParam = request.queryParam("ids");
+            if (idsParam != null && !idsParam.isEmpty()) {
+                ids = new HashSet<>();
+                try {
+                    for (String id : idsParam.split(",")) {
+                        ids.add(Long.parseLong(id.trim()));
+                    }
+                } catch (NumberFormatException e) {
+                    response.status(400);
+                    return "Invalid ids";
+                }
+            }
+
+            List<DeadLetterStore.DeadLetter> taken;
+            try {
+                taken = deadLetters.take(ids);
+            } catch (IOException e) {
+                response.status(500);
+                return "Dead letter store unavailable";
+            }
+            for (DeadLetterStore.DeadLetter entry : taken) {
+                dispatcher.submit(entry.channelId(), entry.embed());
+            }
+            System.out.println("Reenviando " + taken.size() + " dead letter(s)");
+
+            response.type("application/json");
+            return "{\"redriven\":" + taken.size() + "}";
+        }));
     }
 
     /**
-     * Handles the "push" event received from GitHub.
-     * This method extracts relevant information from the provided JSON object and sends an embed message to the specified Discord channel.
+     * Wraps an admin route so it answers 401 unless the request carries
+     * {@code Authorization: Bearer <ADMIN_TOKEN>} for the current configuration.
      *
-     * @param json    The JSON object containing the webhook payload.
-     * @param channel The Discord channel where the embed message will be sent.
+     * @param route The admin route.
+     * @return The guarded route.
      */
-    private void handlePushEvent(JsonObject json, TextChannel channel) {
-        String repoName = json.getAsJsonObject("repository").get("full_name").getAsString();
-        String author = json.getAsJsonObject("pusher").get("name").getAsString();
-        String branch = json.get("ref").getAsString().replace("refs/heads/", "");
-        String compareUrl = json.get("compare").getAsString();
+    private static IngressServer.Route adminOnly(IngressServer.Route route) {
+        return (request, response) -> {
+            String adminToken = Config.current().getAdminToken();
+            String authorization = request.header("Authorization");
+            if (adminToken.isEmpty() || authorization == null
+                    || !MessageDigest.isEqual(("Bearer " + adminToken).getBytes(StandardCharsets.UTF_8),
+                    authorization.getBytes(StandardCharsets.UTF_8))) {
+                response.status(401);
+                return "Unauthorized";
+            }
+            return route.handle(request, response);
+        };
+    }
 
-        List<CommitInfo> commits = new ArrayList<>();
-        JsonArray commitsArray = json.getAsJsonArray("commits");
+    /**
+     * Creates the HTTP ingress server selected by INGRESS_SERVER: "jdk" (the default) for the JDK's built-in
+     * server, or "spark" for Spark's embedded Jetty. INGRESS_VIRTUAL_THREADS runs each request on its own
+     * virtual thread (JDK server only); otherwise requests run on a pool of INGRESS_MIN_THREADS to
+     * INGRESS_MAX_THREADS threads. INGRESS_IDLE_TIMEOUT_SECONDS, INGRESS_REQUEST_TIMEOUT_SECONDS,
+     * INGRESS_MAX_CONNECTIONS and INGRESS_BACKLOG bound idle connections, slow requests, open connections and
+     * pending accepts.
+     *
+     * @return The {@link IngressServer}, not yet started.
+     * @throws IllegalStateException If INGRESS_SERVER names an unknown server.
+     */
+    private static IngressServer createIngressServer() {
+        IngressSettings settings = new IngressSettings(
+                Config.getInt("PORT", 8080),
+                Boolean.parseBoolean(Config.get("INGRESS_VIRTUAL_THREADS", "true")),
+                Config.getInt("INGRESS_MIN_THREADS", 2),
+                Config.getInt("INGRESS_MAX_THREADS", 16),
+                Config.getInt("INGRESS_IDLE_TIMEOUT_SECONDS", 30),
+                Config.getInt("INGRESS_REQUEST_TIMEOUT_SECONDS", 30),
+                Config.getInt("INGRESS_MAX_CONNECTIONS", -1),
+                Config.getInt("INGRESS_BACKLOG", 0));
+
+        String server = Config.get("INGRESS_SERVER", "jdk").toLowerCase();
+        return switch (server) {
+            case "jdk" -> new JdkIngressServer(settings);
+            case "spark" -> new SparkIngressServer(settings);
+            default -> throw new IllegalStateException("INGRESS_SERVER inválido no arquivo .env: " + server);
+        };
+    }
 
-        for (JsonElement commitElement : commitsArray) {
-            JsonObject commit = commitElement.getAsJsonObject();
-            commits.add(new CommitInfo(
-                    commit.get("id").getAsString(),
-                    commit.get("message").getAsString(),
-                    commit.get("url").getAsString()
-            ));
+    /**
+     * Creates the GitHub API enrichment stage when GITHUB_API_ENRICH is "true". GITHUB_API_URL points it at
+     * another API root, e.g. GitHub Enterprise or a local stub server. The comparison is only fetched for
+     * pushes carrying at least GITHUB_API_COMPARE_MIN_COMMITS commits, by default the 20 a webhook is capped at.
+     *
+     * @return The {@link PushEnricher}, or {@code null} if enrichment is disabled.
+     */
+    private static PushEnricher createPushEnricher() {
+        if (!Boolean.parseBoolean(Config.get("GITHUB_API_ENRICH", "false"))) {
+            return null;
         }
 
-        channel.sendMessageEmbeds(
-                DiscordEmbedBuilder.createPushEmbed(author, commits, repoName, branch, compareUrl)
-        ).queue();
+        int budget = Config.getInt("GITHUB_API_BUDGET_MS", 1500);
+        GitHubApiClient client = new GitHubApiClient(
+                URI.create(Config.get("GITHUB_API_URL", "https://api.github.com")),
+                Config.get("GITHUB_TOKEN", ""),
+                Config.getInt("GITHUB_API_CACHE_ENTRIES", 1000),
+                Duration.ofMillis(budget));
+        return new PushEnricher(client, budget,
+                Config.getInt("GITHUB_API_COMPARE_MIN_COMMITS", PushEnricher.WEBHOOK_COMMIT_LIMIT));
     }
 
     /**
-     * Handles the "star" event received from GitHub.
-     * This method extracts relevant information from the provided JSON object and sends an embed message to the specified Discord channel.
+     * Creates the star and fork activity aggregator when ACTIVITY_AGGREGATION is "true". The activity message
+     * of each repository is updated every ACTIVITY_FLUSH_SECONDS and replaced by a new one every
+     * ACTIVITY_WINDOW_MINUTES.
      *
-     * @param json    The JSON object containing the webhook payload.
-     * @param channel The Discord channel where the embed message will be sent.
-     * @throws NullPointerException If either {@code json} or {@code channel} is {@code null}.
+     * @return The {@link ActivityAggregator}, or {@code null} if stars and forks are announced one by one.
      */
-    private void handleStarEvent(JsonObject json, TextChannel channel) {
-        if (json == null) {
-            throw new NullPointerException("JSON object cannot be null");
-        }
-        if (channel == null) {
-            throw new NullPointerException("Discord channel cannot be null");
+    private ActivityAggregator createActivityAggregator() {
+        if (!Boolean.parseBoolean(Config.get("ACTIVITY_AGGREGATION", "false"))) {
+            return null;
         }
 
-        JsonObject repo = json.getAsJsonObject("repository");
-        String action = json.get("action").getAsString();
+        return new ActivityAggregator(dispatcher, this::getRoutingTable,
+                Duration.ofSeconds(Config.getInt("ACTIVITY_FLUSH_SECONDS", 30)).toMillis(),
+                Duration.ofMinutes(Config.getInt("ACTIVITY_WINDOW_MINUTES", 60)).toMillis(),
+                Config.getInt("ACTIVITY_RECENT_USERS", 10));
+    }
+
+    /**
+     * Creates the signature verifier from {@code WEBHOOK_SECRET}.
+     *
+     * @param secret The configured secret.
+     * @return The {@link SignatureVerifier}, or {@code null} if no secret is configured.
+     */
+    private static SignatureVerifier createSignatureVerifier(String secret) {
+        if (secret.isEmpty()) {
+            System.err.println("WEBHOOK_SECRET não configurado, assinaturas dos webhooks não serão verificadas");
+            return null;
+        }
+        return new SignatureVerifier(secret);
+    }
 
-        if (action.equals("created")) {
-            String user = json.getAsJsonObject("sender").get("login").getAsString();
-            String repoName = repo.get("full_name").getAsString();
-            String repoUrl = repo.get("html_url").getAsString();
-            int totalStars = repo.get("stargazers_count").getAsInt();
+    /**
+     * Sets the response status and counts the request under the given outcome.
+     *
+     * @param response The ingress response.
+     * @param status   The HTTP status code.
+     * @param outcome  The outcome label used in {@code ryuu_webhook_requests_total}.
+     * @param body     The response body.
+     * @return The response body, for returning from the route.
+     */
+    private static String respond(IngressResponse response, int status, String outcome, String body) {
+        REQUESTS.labels(outcome).inc();
+        response.status(status);
+        return body;
+    }
 
-            channel.sendMessageEmbeds(
-                    DiscordEmbedBuilder.createStarEmbed(user, repoName, repoUrl, totalStars)
-            ).queue();
+    /**
+     * Exposes the counters kept by the queue, the deduplicator and the dispatcher on the metrics endpoint.
+     */
+    private void registerMetrics() {
+        Metrics.gauge("ryuu_queue_depth", "Deliveries waiting in the ingestion queue", queue::getDepth);
+        Metrics.counterFunction("ryuu_queue_rejected_total", "Deliveries refused because the queue was full",
+                queue::getRejectedCount);
+        Metrics.counterFunction("ryuu_queue_dropped_total", "Queued deliveries evicted by DROP_OLDEST",
+                queue::getDroppedCount);
+        Metrics.counterFunction("ryuu_queue_wait_nanoseconds_total", "Time processed deliveries spent queued",
+                queue::getTotalWaitNanos);
+        Metrics.counterFunction("ryuu_dedup_lookups_total", "Delivery id lookups in the dedup cache",
+                deduplicator::getHitCount, "result", "hit");
+        Metrics.counterFunction("ryuu_dedup_lookups_total", "Delivery id lookups in the dedup cache",
+                deduplicator::getMissCount, "result", "miss");
+        Metrics.gauge("ryuu_discord_queue_depth", "Embeds waiting in the Discord dispatcher",
+                dispatcher::getQueueDepth);
+        Metrics.counterFunction("ryuu_discord_embeds_sent_total", "Embeds delivered to Discord",
+                dispatcher::getEmbedsSent);
+        Metrics.counterFunction("ryuu_discord_retries_total", "Embeds queued again after a failed send",
+                dispatcher::getRetryCount);
+        Metrics.counterFunction("ryuu_discord_dead_lettered_total", "Embeds moved to the dead letter store",
+                dispatcher::getDeadLetteredCount);
+        if (deadLetters != null) {
+            Metrics.gauge("ryuu_dead_letters", "Embeds currently held in the dead letter store", deadLetters::size);
+        }
+        if (activity != null) {
+            Metrics.gauge("ryuu_activity_repositories", "Repositories with activity state held in memory",
+                    activity::getTrackedRepositoryCount);
         }
     }
 
     /**
-     * Handles the "fork" event received from GitHub.
-     * This method extracts relevant information from the provided JSON objects and sends an embed message to the specified Discord channel.
+     * Builds the JSON body shared by the health and readiness endpoints.
      *
-     * @param json    The JSON object containing the webhook payload. This object must not be {@code null}.
-     * @param channel The Discord channel where the embed message will be sent. This parameter must not be {@code null}.
-     * @throws NullPointerException If either {@code json} or {@code channel} is {@code null}.
+     * @return A JSON object with the ingress state, the Discord state and the current queue depth.
      */
-    private void handleForkEvent(JsonObject json, TextChannel channel) {
-        if (json == null) {
-            throw new NullPointerException("JSON object cannot be null");
+    private String healthJson() {
+        return "{\"ingress\":\"up\",\"discord\":\"" + (discordReady ? "ready" : "connecting")
+                + "\",\"queueDepth\":" + queue.getDepth() + "}";
+    }
+
+    /**
+     * Signals that the Discord session is ready and starts draining the buffered deliveries.
+     * Calling this method more than once has no effect.
+     */
+    public void onDiscordReady() {
+        if (!discordReady) {
+            discordReady = true;
+            queue.start();
+            System.out.println("Discord pronto, processando " + queue.getDepth() + " entrega(s) em espera");
         }
-        if (channel == null) {
-            throw new NullPointerException("Discord channel cannot be null");
+    }
+
+    /**
+     * Stops the handler and flushes what it holds in memory. The endpoint stops accepting deliveries and the
+     * workers stop; deliveries not processed yet stay in the journal and are replayed on the next start.
+     * Pending push batches and activity counts are then flushed, and the dispatcher gets up to
+     * DISCORD_SHUTDOWN_TIMEOUT_MS (default 10000) to send what is queued. The journal is not closed, so
+     * the acknowledgements of those sends can still be written to it.
+     */
+    public void close() {
+        ingress.stop();
+        queue.stop();
+        handlers.close();
+        if (activity != null) {
+            activity.close();
         }
+        dispatcher.close(Config.getInt("DISCORD_SHUTDOWN_TIMEOUT_MS", 10000));
+    }
 
-        JsonObject repo = json.getAsJsonObject("repository");
-        JsonObject forkRepo = json.getAsJsonObject("forkee");
+    /**
+     * Returns whether the Discord session is ready and deliveries are being processed.
+     *
+     * @return {@code true} once {@link #onDiscordReady()} was called.
+     */
+    public boolean isDiscordReady() {
+        return discordReady;
+    }
+
+    /**
+     * Returns the ingestion queue that buffers deliveries between the endpoint and the workers.
+     *
+     * @return The {@link WebhookQueue} used by this handler.
+     */
+    public WebhookQueue getQueue() {
+        return queue;
+    }
 
-        String user = json.getAsJsonObject("sender").get("login").getAsString();
-        String originalRepo = repo.get("full_name").getAsString();
-        String forkUrl = forkRepo.get("html_url").getAsString();
-        String forkName = forkRepo.get("full_name").getAsString();
-        int totalForks = repo.get("forks_count").getAsInt();
+    /**
+     * Returns the HTTP server that receives the deliveries.
+     *
+     * @return The {@link IngressServer} used by this handler.
+     */
+    public IngressServer getIngressServer() {
+        return ingress;
+    }
 
-        channel.sendMessageEmbeds(
-                DiscordEmbedBuilder.createForkEmbed(user, originalRepo, forkUrl, forkName, totalForks)
-        ).queue();
+    /**
+     * Returns the dispatcher that paces and batches outbound Discord messages.
+     *
+     * @return The {@link DiscordDispatcher} used by this handler.
+     */
+    public DiscordDispatcher getDispatcher() {
+        return dispatcher;
     }
 
     /**
-     * Handles the "release" event received from GitHub.
-     * This method extracts relevant information from the provided JSON objects and sends an embed message to the specified Discord channel.
+     * Returns the routing table currently in use; it is replaced when the configuration is reloaded.
      *
-     * @param json    The JSON object containing the webhook payload. This object must not be {@code null}.
-     * @param channel The Discord channel where the embed message will be sent. This parameter must not be {@code null}.
-     * @throws NullPointerException If either {@code json} or {@code channel} is {@code null}.
+     * @return The current {@link RoutingTable}.
      */
-    private void handleReleaseEvent(JsonObject json, TextChannel channel) {
-        if (json == null) {
-            throw new NullPointerException("JSON object cannot be null");
+    public RoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
+    /**
+     * Returns the cache used to recognise redelivered webhooks.
+     *
+     * @return The {@link DeliveryDeduplicator} used by this handler.
+     */
+    public DeliveryDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * Queues the deliveries recovered from the {@link DeliveryJournal} after a restart ahead of live traffic.
+     * Their ids are recorded in the deduplicator so a GitHub redelivery of the same event is ignored. Called
+     * before the endpoint opens, so no live delivery can be accepted first.
+     *
+     * @param deliveries The recovered deliveries, in the order they were accepted.
+     */
+    private void replay(List<WebhookDelivery> deliveries) {
+        if (deliveries.isEmpty()) {
+            return;
         }
-        if (channel == null) {
-            throw new NullPointerException("Discord channel cannot be null");
+        System.out.println("Reprocessando " + deliveries.size() + " entrega(s) do journal");
+        for (WebhookDelivery delivery : deliveries) {
+            deduplicator.markSeen(delivery.deliveryId());
         }
+        queue.enqueueRecovered(deliveries);
+    }
 
-        String action = json.get("action").getAsString();
-        if (action.equals("published")) {
-            JsonObject release = json.getAsJsonObject("release");
-            JsonObject repo = json.getAsJsonObject("repository");
+    /**
+     * Processes a queued webhook delivery from GitHub based on its event type and payload.
+     * The delivery is handed to the {@link HandlerRegistry}, whose handlers read the payload with the
+     * streaming {@link PayloadExtractor} and only pull the fields each event type needs. Once the resulting
+     * Discord message was sent, the delivery is acknowledged in the journal; if sending fails it stays there
+     * and is replayed on the next start.
+     *
+     * @param delivery The delivery containing the event type and the raw payload.
+     */
+    private void processWebhook(WebhookDelivery delivery) {
+        String eventType = delivery.eventType();
+        long handleStart = System.nanoTime();
+        CompletableFuture<Void> done;
+        try {
+            // Deliveries of events that lost their handler, e.g. replayed from the journal, are dropped
+            if (handlers.isSubscribed(eventType)) {
+                done = handlers.dispatch(eventType, delivery.body());
+            } else {
+                System.out.println("Evento não processado: " + eventType);
+                UNHANDLED_EVENTS.labels(eventType).inc();
+                done = CompletableFuture.completedFuture(null);
+            }
+            HANDLER_DURATION.labels(eventType).recordSince(handleStart);
+        } catch (Exception e) {
+            // A payload that cannot be processed now will not succeed on replay either
+            System.err.println("Erro ao processar webhook: " + e.getMessage());
+            e.printStackTrace();
+            FAILED_EVENTS.labels(eventType).inc();
+            done = CompletableFuture.completedFuture(null);
+        }
 
-            String repoName = repo.get("full_name").getAsString();
-            String tagName = release.get("tag_name").getAsString();
-            String authorName = release.getAsJsonObject("author").get("login").getAsString();
-            String releaseUrl = release.get("html_url").getAsString();
-            String description = release.get("body").getAsString();
-            boolean isPreRelease = release.get("prerelease").getAsBoolean();
+        done.whenComplete((ignored, error) -> {
+            if (error == null) {
+                acknowledge(delivery);
+            } else {
+                System.err.println("Entrega " + delivery.deliveryId() + " não enviada, mantida no journal");
+            }
+        });
+    }
+
+    /**
+     * Releases a delivery evicted from the queue by DROP_OLDEST: it is acknowledged in the journal, so it is
+     * not replayed on the next start, and forgotten by the deduplicator, so a manual redelivery from GitHub
+     * is accepted again instead of being answered as a duplicate.
+     *
+     * @param delivery The evicted delivery.
+     */
+    private void onEvicted(WebhookDelivery delivery) {
+        deduplicator.forget(delivery.deliveryId());
+        acknowledge(delivery);
+    }
+
+    private void acknowledge(WebhookDelivery delivery) {
+        if (journal != null) {
+            journal.acknowledge(delivery.sequence());
+        }
+    }
+
+    /**
+     * Queues an embed on every channel the routing table selects for the event.
+     * The embed is rendered once per distinct template set among the target channels.
+     *
+     * @param eventType The {@code X-GitHub-Event} type.
+     * @param repoName  The full name of the repository.
+     * @param branch    The branch the event refers to, or {@code null} if the event has none.
+     * @param render    Renders the embed with a given template set.
+     * @return A future completed once the embed was sent to every target channel.
+     */
+    private CompletableFuture<Void> send(String eventType, String repoName, String branch,
+                                         Function<EmbedTemplates, MessageEmbed> render) {
+        RoutingTable routingTable = this.routingTable;
+        long[] channelIds = routingTable.route(repoName, branch, eventType);
+        if (channelIds.length == 0) {
+            System.out.println("Nenhuma rota para " + eventType + " em " + repoName);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (channelIds.length == 1) {
+            return dispatcher.submit(channelIds[0],
+                    render.apply(EmbedTemplates.named(routingTable.templateFor(channelIds[0]))));
+        }
 
-            channel.sendMessageEmbeds(
-                    DiscordEmbedBuilder.createReleaseEmbed(repoName, tagName, authorName,
-                            releaseUrl, description, isPreRelease)
-            ).queue();
+        Map<EmbedTemplates, MessageEmbed> rendered = new HashMap<>();
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[channelIds.length];
+        for (int i = 0; i < channelIds.length; i++) {
+            MessageEmbed embed = rendered.computeIfAbsent(
+                    EmbedTemplates.named(routingTable.templateFor(channelIds[i])), render);
+            sends[i] = dispatcher.submit(channelIds[i], embed);
         }
+        return CompletableFuture.allOf(sends);
     }
-}
\ No newline at end of file
+}
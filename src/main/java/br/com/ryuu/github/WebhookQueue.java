@@ -0,0 +1,270 @@
+package br.com.ryuu.github;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ingestion queue that decouples the HTTP request thread from webhook processing.
+ * Deliveries are accepted by {@link #offer(WebhookDelivery)} and drained by a fixed number of
+ * virtual-thread workers, which hand each delivery to the configured processor.
+ * <p>
+ * Deliveries recovered from the journal go to a separate, unbounded backlog through
+ * {@link #enqueueRecovered(List)}. They never compete with live traffic for capacity, and workers drain
+ * the backlog before taking anything from the bounded queue, so the backlog is processed first and in order.
+ */
+public class WebhookQueue {
+
+    /**
+     * Defines what happens when a delivery is offered to a full queue.
+     */
+    public enum OverflowPolicy {
+        /** Refuse the new delivery; the endpoint answers 503 so GitHub retries it later. */
+        REJECT,
+        /** Evict the oldest queued delivery to make room for the new one. */
+        DROP_OLDEST,
+        /** Wait up to the configured block timeout for space, then refuse the delivery. */
+        BLOCK
+    }
+
+    private final BlockingQueue<WebhookDelivery> queue;
+    private final BlockingQueue<WebhookDelivery> recovered = new LinkedBlockingQueue<>();
+    private final int workerCount;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final Consumer<WebhookDelivery> processor;
+    private final Consumer<WebhookDelivery> evictionHandler;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a new instance of the {@code WebhookQueue} class.
+     *
+     * @param capacity           The maximum number of deliveries that can wait in the queue.
+     * @param workerCount        The number of workers draining the queue.
+     * @param overflowPolicy     The policy applied when the queue is full.
+     * @param blockTimeoutMillis The maximum time to wait for space when using {@link OverflowPolicy#BLOCK}.
+     * @param processor          The callback that processes each delivery.
+     * @param evictionHandler    The callback told about each delivery evicted by {@link OverflowPolicy#DROP_OLDEST},
+     *                           so its owner can release whatever it holds for it.
+     * @throws IllegalArgumentException If {@code capacity} or {@code workerCount} is not positive.
+     * @throws NullPointerException     If {@code overflowPolicy}, {@code processor} or {@code evictionHandler}
+     *                                  is {@code null}.
+     */
+    public WebhookQueue(int capacity, int workerCount, OverflowPolicy overflowPolicy,
+                        long blockTimeoutMillis, Consumer<WebhookDelivery> processor,
+                        Consumer<WebhookDelivery> evictionHandler) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        if (overflowPolicy == null) {
+            throw new NullPointerException("Overflow policy cannot be null");
+        }
+        if (processor == null) {
+            throw new NullPointerException("Processor cannot be null");
+        }
+        if (evictionHandler == null) {
+            throw new NullPointerException("Eviction handler cannot be null");
+        }
+
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.workerCount = workerCount;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.processor = processor;
+        this.evictionHandler = evictionHandler;
+    }
+
+    /**
+     * Starts the worker threads. Calling this method more than once has no effect.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual()
+                    .name("webhook-worker-" + i)
+                    .start(this::drain));
+        }
+    }
+
+    /**
+     * Stops the worker threads. Deliveries still in the queue are left unprocessed.
+     */
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /**
+     * Offers a delivery to the queue, applying the configured {@link OverflowPolicy} if it is full.
+     *
+     * @param delivery The delivery to enqueue.
+     * @return {@code true} if the delivery was enqueued, {@code false} if it was rejected.
+     */
+    public boolean offer(WebhookDelivery delivery) {
+        boolean enqueued = switch (overflowPolicy) {
+            case REJECT -> queue.offer(delivery);
+            case DROP_OLDEST -> offerDroppingOldest(delivery);
+            case BLOCK -> offerBlocking(delivery);
+        };
+
+        if (enqueued) {
+            accepted.increment();
+        } else {
+            rejected.increment();
+        }
+        return enqueued;
+    }
+
+    /**
+     * Adds recovered deliveries to the backlog, which workers drain ahead of the bounded queue.
+     * Never blocks and never drops: the deliveries are already held in memory by the journal recovery.
+     *
+     * @param deliveries The recovered deliveries, in the order they were accepted.
+     */
+    public void enqueueRecovered(List<WebhookDelivery> deliveries) {
+        recovered.addAll(deliveries);
+        accepted.add(deliveries.size());
+    }
+
+    private boolean offerDroppingOldest(WebhookDelivery delivery) {
+        while (!queue.offer(delivery)) {
+            WebhookDelivery evicted = queue.poll();
+            if (evicted != null) {
+                dropped.increment();
+                System.err.println("Fila cheia, descartando entrega: " + evicted.deliveryId());
+                try {
+                    evictionHandler.accept(evicted);
+                } catch (Exception e) {
+                    System.err.println("Erro ao liberar entrega descartada " + evicted.deliveryId() + ": "
+                            + e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(WebhookDelivery delivery) {
+        try {
+            return queue.offer(delivery, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Worker loop: takes deliveries from the queue and hands them to the processor until stopped.
+     */
+    private void drain() {
+        while (running) {
+            // Recovered deliveries go first, so live traffic cannot overtake the backlog
+            WebhookDelivery delivery = recovered.poll();
+            if (delivery == null) {
+                try {
+                    delivery = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            long waitNanos = System.nanoTime() - delivery.receivedAtNanos();
+            totalWaitNanos.add(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+
+            try {
+                processor.accept(delivery);
+            } catch (Exception e) {
+                System.err.println("Erro ao processar entrega " + delivery.deliveryId() + ": " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                processed.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns how many deliveries are waiting to be processed, including the recovered backlog.
+     *
+     * @return The number of waiting deliveries.
+     */
+    public int getDepth() {
+        return queue.size() + recovered.size();
+    }
+
+    /**
+     * Returns how many deliveries were accepted into the queue since it was created.
+     *
+     * @return The total number of accepted deliveries.
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * Returns how many deliveries were refused because the queue was full.
+     *
+     * @return The total number of rejected deliveries.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns how many queued deliveries were evicted to make room for newer ones.
+     *
+     * @return The total number of deliveries evicted by {@link OverflowPolicy#DROP_OLDEST}.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns how many deliveries the workers handed to the processor.
+     *
+     * @return The total number of processed deliveries.
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * Returns the accumulated time processed deliveries spent waiting in the queue.
+     *
+     * @return The total wait, in nanoseconds.
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    /**
+     * Returns the longest time a single delivery spent waiting in the queue.
+     *
+     * @return The longest wait, in nanoseconds.
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+}
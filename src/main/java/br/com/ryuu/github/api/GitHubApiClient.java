@@ -0,0 +1,140 @@
+package br.com.ryuu.github.api;
+
+import br.com.ryuu.metrics.Counter;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal asynchronous client for the GitHub REST API with conditional-request caching.
+ * <p>
+ * Every successful response that carries an {@code ETag} is kept, already parsed, in a bounded LRU cache.
+ * Later requests for the same path send {@code If-None-Match}; GitHub answers {@code 304 Not Modified}
+ * without a body and without charging the rate limit, and the cached value is returned.
+ */
+public class GitHubApiClient {
+
+    /**
+     * Parses a response body. Implementations should stream the body and read only what they need.
+     *
+     * @param <T> The parsed type.
+     */
+    @FunctionalInterface
+    public interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    private record CachedResponse(String etag, Object value) {
+    }
+
+    private static final MetricVec<Counter> REQUESTS = Metrics.counterVec("ryuu_github_api_requests_total",
+            "GitHub API requests by result", "result");
+
+    private final HttpClient http;
+    private final URI baseUrl;
+    private final String token;
+    private final Duration timeout;
+    private final Map<String, CachedResponse> cache;
+
+    /**
+     * Constructs a new instance of the {@code GitHubApiClient} class.
+     *
+     * @param baseUrl      The API root, e.g. {@code https://api.github.com}.
+     * @param token        The token sent as {@code Authorization: Bearer}, or {@code null} for anonymous requests.
+     * @param cacheEntries The maximum number of responses kept for conditional requests.
+     * @param timeout      The timeout of a single request.
+     * @throws NullPointerException     If {@code baseUrl} or {@code timeout} is {@code null}.
+     * @throws IllegalArgumentException If {@code cacheEntries} is not positive.
+     */
+    public GitHubApiClient(URI baseUrl, String token, int cacheEntries, Duration timeout) {
+        if (baseUrl == null || timeout == null) {
+            throw new NullPointerException("Base URL and timeout cannot be null");
+        }
+        if (cacheEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+
+        String base = baseUrl.toString();
+        this.baseUrl = URI.create(base.endsWith("/") ? base.substring(0, base.length() - 1) : base);
+        this.token = token == null || token.isEmpty() ? null : token;
+        this.timeout = timeout;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Requests a path of the API and parses the response.
+     *
+     * @param path   The path, starting with {@code /}, e.g. {@code /repos/owner/name/commits/sha/pulls}.
+     * @param parser The parser applied to a {@code 200} response body.
+     * @param <T>    The parsed type.
+     * @return A future with the parsed value, or the cached one if GitHub answered {@code 304}. It fails
+     * on any other status or on a network error.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(String path, BodyParser<T> parser) {
+        CachedResponse cached;
+        synchronized (cache) {
+            cached = cache.get(path);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", "application/vnd.github+json")
+                .header("X-GitHub-Api-Version", "2022-11-28")
+                .GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (cached != null) {
+            request.header("If-None-Match", cached.etag());
+        }
+
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() == 304 && cached != null) {
+                            REQUESTS.labels("not_modified").inc();
+                            return (T) cached.value();
+                        }
+                        if (response.statusCode() != 200) {
+                            REQUESTS.labels("error").inc();
+                            throw new IllegalStateException("GitHub API respondeu " + response.statusCode()
+                                    + " para " + path);
+                        }
+
+                        T value = parser.parse(body);
+                        REQUESTS.labels("ok").inc();
+                        response.headers().firstValue("ETag").ifPresent(etag -> {
+                            synchronized (cache) {
+                                cache.put(path, new CachedResponse(etag, value));
+                            }
+                        });
+                        return value;
+                    } catch (IOException e) {
+                        REQUESTS.labels("error").inc();
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+}
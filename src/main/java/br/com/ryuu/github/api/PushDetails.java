@@ -0,0 +1,28 @@
+package br.com.ryuu.github.api;
+
+import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
+
+import java.util.List;
+
+/**
+ * Data about a push fetched from the GitHub API, beyond what the webhook payload carries.
+ * Each part is optional, since it may not have arrived within the latency budget.
+ *
+ * @param commits           The full commit list of the push, or {@code null} if it was not fetched.
+ * @param totalCommits      The number of commits in the push, or {@code -1} if unknown.
+ * @param additions         The number of added lines.
+ * @param deletions         The number of deleted lines.
+ * @param changedFiles      The number of changed files, or {@code -1} if the diff stats are unknown.
+ * @param pullRequestNumber The number of the pull request the head commit belongs to, or {@code 0} if none.
+ * @param pullRequestTitle  The title of that pull request.
+ * @param pullRequestUrl    The URL of that pull request.
+ */
+public record PushDetails(List<CommitInfo> commits, int totalCommits, int additions, int deletions,
+                          int changedFiles, int pullRequestNumber, String pullRequestTitle,
+                          String pullRequestUrl) {
+
+    /**
+     * Details of a push for which nothing could be fetched.
+     */
+    public static final PushDetails NONE = new PushDetails(null, -1, 0, 0, -1, 0, null, null);
+}
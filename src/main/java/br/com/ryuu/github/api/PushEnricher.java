@@ -0,0 +1,217 @@
+package br.com.ryuu.github.api;
+
+import br.com.ryuu.github.payload.JsonPathSelector;
+import br.com.ryuu.github.payload.PushPayload;
+import br.com.ryuu.metrics.Histogram;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrichment stage for push notifications.
+ * <p>
+ * For a branch push it asks the GitHub API for the pull request the new head belongs to. For a push whose
+ * payload may be truncated, since webhooks carry at most 20 commits, it also asks for the comparison between
+ * the old and new head (full commit list and diff stats); smaller pushes skip it, so an ordinary push costs a
+ * single request. Both requests run in parallel and are cut off by a fixed latency budget: whatever has not
+ * arrived by then is left out, so a slow or failing API never holds the notification back for longer than
+ * the budget.
+ */
+public class PushEnricher {
+
+    private static final String ZERO_SHA = "0000000000000000000000000000000000000000";
+
+    /**
+     * The most commits a push webhook carries; a payload with this many may have been truncated.
+     */
+    public static final int WEBHOOK_COMMIT_LIMIT = 20;
+
+    private static final JsonPathSelector COMPARE = JsonPathSelector.compile(
+            "total_commits", "commits[]", "files[]");
+    private static final JsonPathSelector COMMIT = JsonPathSelector.compile(
+            "sha", "commit.message", "html_url");
+    private static final JsonPathSelector FILE = JsonPathSelector.compile(
+            "additions", "deletions");
+    private static final JsonPathSelector PULL = JsonPathSelector.compile(
+            "number", "title", "html_url");
+
+    private static final MetricVec<Histogram> ENRICH_DURATION = Metrics.histogramVec("ryuu_stage_duration_seconds",
+            "Time spent in each processing stage", "event", "stage", "enrich");
+
+    private record Comparison(List<CommitInfo> commits, int totalCommits, int additions, int deletions,
+                              int changedFiles) {
+    }
+
+    private record PullRequest(int number, String title, String url) {
+    }
+
+    private final GitHubApiClient client;
+    private final long budgetMillis;
+    private final int compareMinCommits;
+
+    /**
+     * Constructs a new instance of the {@code PushEnricher} class that only compares pushes whose payload
+     * may have been truncated.
+     *
+     * @param client       The API client.
+     * @param budgetMillis The longest time enrichment may delay a notification.
+     * @throws NullPointerException     If {@code client} is {@code null}.
+     * @throws IllegalArgumentException If {@code budgetMillis} is not positive.
+     */
+    public PushEnricher(GitHubApiClient client, long budgetMillis) {
+        this(client, budgetMillis, WEBHOOK_COMMIT_LIMIT);
+    }
+
+    /**
+     * Constructs a new instance of the {@code PushEnricher} class.
+     *
+     * @param client            The API client.
+     * @param budgetMillis      The longest time enrichment may delay a notification.
+     * @param compareMinCommits The number of commits in the payload from which the comparison is fetched.
+     * @throws NullPointerException     If {@code client} is {@code null}.
+     * @throws IllegalArgumentException If {@code budgetMillis} or {@code compareMinCommits} is not positive.
+     */
+    public PushEnricher(GitHubApiClient client, long budgetMillis, int compareMinCommits) {
+        if (client == null) {
+            throw new NullPointerException("GitHub API client cannot be null");
+        }
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Enrichment budget must be positive");
+        }
+        if (compareMinCommits <= 0) {
+            throw new IllegalArgumentException("Compare threshold must be positive");
+        }
+        this.client = client;
+        this.budgetMillis = budgetMillis;
+        this.compareMinCommits = compareMinCommits;
+    }
+
+    /**
+     * Fetches the details of a push. The returned future never fails and completes within the budget.
+     *
+     * @param push The push to enrich.
+     * @return A future with the details that arrived in time.
+     */
+    public CompletableFuture<PushDetails> enrich(PushPayload push) {
+        long start = System.nanoTime();
+        String repo = push.repoName();
+        String before = push.before();
+        String after = push.after();
+        if (repo == null || after == null || after.equals(ZERO_SHA)) {
+            return CompletableFuture.completedFuture(PushDetails.NONE);
+        }
+
+        // A new branch has no base to compare with, and a payload below the threshold already lists every commit
+        int payloadCommits = push.commits() != null ? push.commits().size() : 0;
+        CompletableFuture<Comparison> comparison = before == null || before.equals(ZERO_SHA)
+                || payloadCommits < compareMinCommits
+                ? CompletableFuture.completedFuture(null)
+                : withinBudget(client.get("/repos/" + repo + "/compare/" + before + "..." + after,
+                        PushEnricher::parseComparison));
+
+        // Tags do not belong to pull requests
+        CompletableFuture<PullRequest> pullRequest = push.ref() != null && push.ref().startsWith("refs/tags/")
+                ? CompletableFuture.completedFuture(null)
+                : withinBudget(client.get("/repos/" + repo + "/commits/" + after + "/pulls",
+                        PushEnricher::parsePullRequest));
+
+        return comparison.thenCombine(pullRequest, (compare, pull) -> {
+            ENRICH_DURATION.labels("push").recordSince(start);
+            return new PushDetails(
+                    compare != null ? compare.commits() : null,
+                    compare != null ? compare.totalCommits() : -1,
+                    compare != null ? compare.additions() : 0,
+                    compare != null ? compare.deletions() : 0,
+                    compare != null ? compare.changedFiles() : -1,
+                    pull != null ? pull.number() : 0,
+                    pull != null ? pull.title() : null,
+                    pull != null ? pull.url() : null);
+        });
+    }
+
+    private <T> CompletableFuture<T> withinBudget(CompletableFuture<T> request) {
+        return request
+                .exceptionally(error -> {
+                    System.err.println("Falha ao consultar a API do GitHub: " + error.getMessage());
+                    return null;
+                })
+                .completeOnTimeout(null, budgetMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static Comparison parseComparison(InputStream body) throws IOException {
+        List<CommitInfo> commits = new ArrayList<>();
+        int[] totals = new int[4];
+
+        try (JsonReader reader = open(body)) {
+            COMPARE.select(reader, (path, value) -> {
+                switch (path) {
+                    case "total_commits" -> totals[0] = value.nextInt();
+                    case "commits[]" -> commits.add(readCommit(value));
+                    case "files[]" -> {
+                        FILE.select(value, (filePath, fileValue) -> {
+                            switch (filePath) {
+                                case "additions" -> totals[1] += fileValue.nextInt();
+                                case "deletions" -> totals[2] += fileValue.nextInt();
+                                default -> fileValue.skipValue();
+                            }
+                        });
+                        totals[3]++;
+                    }
+                    default -> value.skipValue();
+                }
+            });
+        }
+        return new Comparison(commits, Math.max(totals[0], commits.size()), totals[1], totals[2], totals[3]);
+    }
+
+    private static CommitInfo readCommit(JsonReader reader) throws IOException {
+        String[] fields = new String[3];
+        COMMIT.select(reader, (path, value) -> {
+            switch (path) {
+                case "sha" -> fields[0] = JsonPathSelector.readString(value);
+                case "commit.message" -> fields[1] = JsonPathSelector.readString(value);
+                case "html_url" -> fields[2] = JsonPathSelector.readString(value);
+                default -> value.skipValue();
+            }
+        });
+        return new CommitInfo(fields[0], fields[1], fields[2]);
+    }
+
+    /**
+     * Reads the first pull request of the array returned by the commit pulls endpoint.
+     */
+    private static PullRequest parsePullRequest(InputStream body) throws IOException {
+        try (JsonReader reader = open(body)) {
+            reader.beginArray();
+            if (!reader.hasNext()) {
+                return null;
+            }
+
+            String[] fields = new String[2];
+            int[] number = new int[1];
+            PULL.select(reader, (path, value) -> {
+                switch (path) {
+                    case "number" -> number[0] = value.nextInt();
+                    case "title" -> fields[0] = JsonPathSelector.readString(value);
+                    case "html_url" -> fields[1] = JsonPathSelector.readString(value);
+                    default -> value.skipValue();
+                }
+            });
+            return new PullRequest(number[0], fields[0], fields[1]);
+        }
+    }
+
+    private static JsonReader open(InputStream in) {
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.utils.EmbedTemplates;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Delivers the embed of an event to every Discord channel routed to it.
+ */
+@FunctionalInterface
+public interface EmbedSender {
+
+    /**
+     * Renders and queues an embed on every channel the routing table selects for the event.
+     *
+     * @param eventType The {@code X-GitHub-Event} type.
+     * @param repoName  The full name of the repository.
+     * @param branch    The branch the event refers to, or {@code null} if the event has none.
+     * @param render    Renders the embed with the template set of a target channel.
+     * @return A future completed once the embed was sent to every target channel.
+     */
+    CompletableFuture<Void> send(String eventType, String repoName, String branch,
+                                 Function<EmbedTemplates, MessageEmbed> render);
+}
@@ -0,0 +1,44 @@
+package br.com.ryuu.github.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles one GitHub event type. Implementations are registered in a {@link HandlerRegistry}.
+ */
+public interface EventHandler {
+
+    /**
+     * Returns the {@code X-GitHub-Event} type this handler processes.
+     *
+     * @return The event type, e.g. {@code push}.
+     */
+    String eventType();
+
+    /**
+     * Returns the payload actions this handler processes. Deliveries with any other action are dropped
+     * by the registry after reading only the {@code action} key.
+     *
+     * @return The accepted actions, or an empty set to accept every delivery of the event type.
+     */
+    default Set<String> actions() {
+        return Set.of();
+    }
+
+    /**
+     * Processes a delivery.
+     *
+     * @param payload The raw payload stream.
+     * @return A future completed once the resulting messages were sent.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    CompletableFuture<Void> handle(InputStream payload) throws IOException;
+
+    /**
+     * Sends any events this handler is still holding back and stops its background work.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.ActivityAggregator;
+import br.com.ryuu.github.payload.ForkPayload;
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "fork" event. The message is routed by the original repository.
+ */
+public class ForkHandler implements EventHandler {
+
+    private final EmbedSender sender;
+    private final ActivityAggregator aggregator;
+
+    /**
+     * Constructs a new instance of the {@code ForkHandler} class.
+     *
+     * @param sender The sender that delivers the embeds.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public ForkHandler(EmbedSender sender) {
+        this(sender, null);
+    }
+
+    /**
+     * Constructs a new instance of the {@code ForkHandler} class.
+     *
+     * @param sender     The sender that delivers the embeds.
+     * @param aggregator The aggregator that folds forks into activity messages, or {@code null} to announce
+     *                   every fork with its own embed.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public ForkHandler(EmbedSender sender, ActivityAggregator aggregator) {
+        if (sender == null) {
+            throw new NullPointerException("Sender cannot be null");
+        }
+        this.sender = sender;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public String eventType() {
+        return "fork";
+    }
+
+    @Override
+    public CompletableFuture<Void> handle(InputStream payload) throws IOException {
+        ForkPayload fork = PayloadExtractor.readFork(payload);
+        if (aggregator != null) {
+            return aggregator.recordFork(fork);
+        }
+        return sender.send("fork", fork.originalRepo(), null,
+                templates -> DiscordEmbedBuilder.createForkEmbed(templates, fork.user(), fork.originalRepo(),
+                        fork.forkUrl(), fork.forkName(), fork.totalForks()));
+    }
+}
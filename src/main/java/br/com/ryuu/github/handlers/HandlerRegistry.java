@@ -0,0 +1,110 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.metrics.Counter;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@link EventHandler}s known to the bot, keyed by {@code X-GitHub-Event} type and payload action.
+ * <p>
+ * Event types without a handler can be refused from the request headers alone. For event types whose
+ * handlers only accept some actions, the registry reads just the {@code action} key and drops the delivery
+ * before any handler parses it. Handlers must be registered before the first delivery is dispatched.
+ */
+public class HandlerRegistry {
+
+    private static final MetricVec<Counter> FILTERED_EVENTS = Metrics.counterVec("ryuu_webhook_filtered_events_total",
+            "Deliveries dropped because no handler accepts their action", "event");
+
+    private final Map<String, List<EventHandler>> byEvent = new HashMap<>();
+    private final List<EventHandler> handlers = new ArrayList<>();
+
+    /**
+     * Registers a handler. Several handlers may process the same event type.
+     *
+     * @param handler The handler to register.
+     * @return This registry, for chaining.
+     * @throws NullPointerException If {@code handler} is {@code null}.
+     */
+    public HandlerRegistry register(EventHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("Handler cannot be null");
+        }
+        byEvent.computeIfAbsent(handler.eventType(), key -> new ArrayList<>()).add(handler);
+        handlers.add(handler);
+        return this;
+    }
+
+    /**
+     * Returns whether any handler processes the given event type.
+     *
+     * @param eventType The {@code X-GitHub-Event} type.
+     * @return {@code true} if deliveries of this type should be accepted.
+     */
+    public boolean isSubscribed(String eventType) {
+        return byEvent.containsKey(eventType);
+    }
+
+    /**
+     * Returns the event types that have at least one handler.
+     *
+     * @return The subscribed event types.
+     */
+    public Set<String> getEventTypes() {
+        return Set.copyOf(byEvent.keySet());
+    }
+
+    /**
+     * Hands a delivery to every handler registered for its event type and action.
+     *
+     * @param eventType The {@code X-GitHub-Event} type.
+     * @param body      The raw payload.
+     * @return A future completed once every handler finished, or immediately if no handler accepts the delivery.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public CompletableFuture<Void> dispatch(String eventType, byte[] body) throws IOException {
+        List<EventHandler> candidates = byEvent.getOrDefault(eventType, List.of());
+        String action = null;
+        boolean actionRead = false;
+        List<CompletableFuture<Void>> results = new ArrayList<>(candidates.size());
+        for (EventHandler handler : candidates) {
+            Set<String> actions = handler.actions();
+            if (!actions.isEmpty()) {
+                if (!actionRead) {
+                    action = PayloadExtractor.readAction(new ByteArrayInputStream(body));
+                    actionRead = true;
+                }
+                if (action == null || !actions.contains(action)) {
+                    continue;
+                }
+            }
+            results.add(handler.handle(new ByteArrayInputStream(body)));
+        }
+
+        if (results.isEmpty()) {
+            FILTERED_EVENTS.labels(eventType).inc();
+            return CompletableFuture.completedFuture(null);
+        }
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Closes every registered handler.
+     */
+    public void close() {
+        handlers.forEach(EventHandler::close);
+    }
+}
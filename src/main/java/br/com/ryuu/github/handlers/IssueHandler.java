@@ -0,0 +1,49 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.payload.IssuePayload;
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "issues" event for opened, closed and reopened issues.
+ */
+public class IssueHandler implements EventHandler {
+
+    private final EmbedSender sender;
+
+    /**
+     * Constructs a new instance of the {@code IssueHandler} class.
+     *
+     * @param sender The sender that delivers the embeds.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public IssueHandler(EmbedSender sender) {
+        if (sender == null) {
+            throw new NullPointerException("Sender cannot be null");
+        }
+        this.sender = sender;
+    }
+
+    @Override
+    public String eventType() {
+        return "issues";
+    }
+
+    @Override
+    public Set<String> actions() {
+        return Set.of("opened", "closed", "reopened");
+    }
+
+    @Override
+    public CompletableFuture<Void> handle(InputStream payload) throws IOException {
+        IssuePayload issue = PayloadExtractor.readIssue(payload);
+        return sender.send("issues", issue.repoName(), null,
+                templates -> DiscordEmbedBuilder.createIssueEmbed(templates, issue.repoName(), issue.number(),
+                        issue.title(), issue.url(), issue.user(), issue.action()));
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.github.payload.PullRequestPayload;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "pull_request" event for opened, closed and reopened pull requests.
+ * The message is routed by the base branch.
+ */
+public class PullRequestHandler implements EventHandler {
+
+    private final EmbedSender sender;
+
+    /**
+     * Constructs a new instance of the {@code PullRequestHandler} class.
+     *
+     * @param sender The sender that delivers the embeds.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public PullRequestHandler(EmbedSender sender) {
+        if (sender == null) {
+            throw new NullPointerException("Sender cannot be null");
+        }
+        this.sender = sender;
+    }
+
+    @Override
+    public String eventType() {
+        return "pull_request";
+    }
+
+    @Override
+    public Set<String> actions() {
+        return Set.of("opened", "closed", "reopened");
+    }
+
+    @Override
+    public CompletableFuture<Void> handle(InputStream payload) throws IOException {
+        PullRequestPayload pullRequest = PayloadExtractor.readPullRequest(payload);
+        return sender.send("pull_request", pullRequest.repoName(), pullRequest.baseBranch(),
+                templates -> DiscordEmbedBuilder.createPullRequestEmbed(templates, pullRequest.repoName(),
+                        pullRequest.number(), pullRequest.title(), pullRequest.url(), pullRequest.user(),
+                        pullRequest.headBranch(), pullRequest.baseBranch(),
+                        pullRequest.merged() ? "merged" : pullRequest.action()));
+    }
+}
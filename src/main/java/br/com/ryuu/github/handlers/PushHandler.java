@@ -0,0 +1,81 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.PushCoalescer;
+import br.com.ryuu.github.api.PushDetails;
+import br.com.ryuu.github.api.PushEnricher;
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.github.payload.PushPayload;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "push" event, optionally merging bursts of pushes through a {@link PushCoalescer} and
+ * completing them with data from the GitHub API through a {@link PushEnricher}.
+ */
+public class PushHandler implements EventHandler {
+
+    private final EmbedSender sender;
+    private final PushCoalescer coalescer;
+    private final PushEnricher enricher;
+
+    /**
+     * Constructs a new instance of the {@code PushHandler} class.
+     *
+     * @param sender               The sender that delivers the embeds.
+     * @param coalesceWindowMillis The coalescing window, or {@code 0} to send every push on its own.
+     * @param maxBatchSize         The maximum number of pushes merged into one message.
+     * @param enricher             The enrichment stage, or {@code null} to send only what the webhook carries.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public PushHandler(EmbedSender sender, long coalesceWindowMillis, int maxBatchSize, PushEnricher enricher) {
+        if (sender == null) {
+            throw new NullPointerException("Sender cannot be null");
+        }
+        this.sender = sender;
+        this.enricher = enricher;
+        this.coalescer = coalesceWindowMillis > 0
+                ? new PushCoalescer(coalesceWindowMillis, maxBatchSize, this::emit)
+                : null;
+    }
+
+    @Override
+    public String eventType() {
+        return "push";
+    }
+
+    @Override
+    public CompletableFuture<Void> handle(InputStream payload) throws IOException {
+        PushPayload push = PayloadExtractor.readPush(payload);
+        return coalescer != null ? coalescer.submit(push) : emit(push);
+    }
+
+    @Override
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    /**
+     * Sends the embed of a push, which may cover several pushes merged by the coalescer.
+     * With an enricher, the embed is sent once the details arrived or the enrichment budget ran out.
+     *
+     * @param push The fields extracted from the push payload.
+     * @return A future completed once the embed was sent.
+     */
+    private CompletableFuture<Void> emit(PushPayload push) {
+        if (enricher == null) {
+            return send(push, PushDetails.NONE);
+        }
+        return enricher.enrich(push).thenCompose(details -> send(push, details));
+    }
+
+    private CompletableFuture<Void> send(PushPayload push, PushDetails details) {
+        return sender.send("push", push.repoName(), push.branch(),
+                templates -> DiscordEmbedBuilder.createPushEmbed(templates, push.pusher(), push.commits(),
+                        push.repoName(), push.branch(), push.compareUrl(), details));
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.github.payload.ReleasePayload;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "release" event. Only published releases are announced.
+ */
+public class ReleaseHandler implements EventHandler {
+
+    private final EmbedSender sender;
+
+    /**
+     * Constructs a new instance of the {@code ReleaseHandler} class.
+     *
+     * @param sender The sender that delivers the embeds.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public ReleaseHandler(EmbedSender sender) {
+        if (sender == null) {
+            throw new NullPointerException("Sender cannot be null");
+        }
+        this.sender = sender;
+    }
+
+    @Override
+    public String eventType() {
+        return "release";
+    }
+
+    @Override
+    public Set<String> actions() {
+        return Set.of("published");
+    }
+
+    @Override
+    public CompletableFuture<Void> handle(InputStream payload) throws IOException {
+        ReleasePayload release = PayloadExtractor.readRelease(payload);
+        return sender.send("release", release.repoName(), null,
+                templates -> DiscordEmbedBuilder.createReleaseEmbed(templates, release.repoName(),
+                        release.tagName(), release.authorName(), release.releaseUrl(), release.description(),
+                        release.isPreRelease()));
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.ryuu.github.handlers;
+
+import br.com.ryuu.github.ActivityAggregator;
+import br.com.ryuu.github.payload.PayloadExtractor;
+import br.com.ryuu.github.payload.StarPayload;
+import br.com.ryuu.utils.DiscordEmbedBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "star" event. Only new stars are announced.
+ */
+public class StarHandler implements EventHandler {
+
+    private final EmbedSender sender;
+    private final ActivityAggregator aggregator;
+
+    /**
+     * Constructs a new instance of the {@code StarHandler} class.
+     *
+     * @param sender The sender that delivers the embeds.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public StarHandler(EmbedSender sender) {
+        this(sender, null);
+    }
+
+    /**
+     * Constructs a new instance of the {@code StarHandler} class.
+     *
+     * @param sender     The sender that delivers the embeds.
+     * @param aggregator The aggregator that folds stars into activity messages, or {@code null} to announce
+     *                   every star with its own embed.
+     * @throws NullPointerException If {@code sender} is {@code null}.
+     */
+    public StarHandler(EmbedSender sender, ActivityAggregator aggregator) {
+        if (sender == null) {
+            throw new NullPointerException("Sender cannot be null");
+        }
+        this.sender = sender;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public String eventType() {
+        return "star";
+    }
+
+    @Override
+    public Set<String> actions() {
+        return Set.of("created");
+    }
+
+    @Override
+    public CompletableFuture<Void> handle(InputStream payload) throws IOException {
+        StarPayload star = PayloadExtractor.readStar(payload);
+        if (aggregator != null) {
+            return aggregator.recordStar(star);
+        }
+        return sender.send("star", star.repoName(), null,
+                templates -> DiscordEmbedBuilder.createStarEmbed(templates, star.user(), star.repoName(),
+                        star.repoUrl(), star.totalStars()));
+    }
+}
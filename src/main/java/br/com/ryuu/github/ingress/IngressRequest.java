@@ -0,0 +1,76 @@
+package br.com.ryuu.github.ingress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * An incoming HTTP request, independent of the server implementation.
+ * <p>
+ * The body is decoded according to its {@code Content-Encoding}: {@code gzip} bodies are inflated as they
+ * are read, so size limits and signatures apply to the payload GitHub sent, not to its compressed form.
+ */
+public abstract class IngressRequest {
+
+    /**
+     * Retrieves a request header.
+     *
+     * @param name The header name, case-insensitive.
+     * @return The first value of the header, or {@code null} if it is absent.
+     */
+    public abstract String header(String name);
+
+    /**
+     * Retrieves a query parameter.
+     *
+     * @param name The parameter name.
+     * @return The decoded value, or {@code null} if the parameter is absent.
+     */
+    public abstract String queryParam(String name);
+
+    /**
+     * Opens the body without decoding it.
+     *
+     * @return The body as received on the wire.
+     * @throws IOException If the body cannot be opened.
+     */
+    protected abstract InputStream rawBody() throws IOException;
+
+    /**
+     * Returns the length the client declared for the body as sent.
+     *
+     * @return The declared {@code Content-Length}, or a negative value if unknown.
+     */
+    protected abstract long rawContentLength();
+
+    /**
+     * Opens the body, inflating it if it is compressed.
+     *
+     * @return The decoded body stream.
+     * @throws UnsupportedContentEncodingException If the body uses an encoding other than gzip.
+     * @throws IOException                         If the body cannot be opened or is not valid gzip.
+     */
+    public InputStream body() throws IOException {
+        String encoding = header("Content-Encoding");
+        if (isIdentity(encoding)) {
+            return rawBody();
+        }
+        if (encoding.trim().equalsIgnoreCase("gzip") || encoding.trim().equalsIgnoreCase("x-gzip")) {
+            return new GZIPInputStream(rawBody());
+        }
+        throw new UnsupportedContentEncodingException(encoding);
+    }
+
+    /**
+     * Returns the length of the body {@link #body()} yields, when it is known up front.
+     *
+     * @return The length of the decoded body, or a negative value if unknown, e.g. because it is compressed.
+     */
+    public long contentLength() {
+        return isIdentity(header("Content-Encoding")) ? rawContentLength() : -1;
+    }
+
+    private static boolean isIdentity(String encoding) {
+        return encoding == null || encoding.isBlank() || encoding.trim().equalsIgnoreCase("identity");
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.ryuu.github.ingress;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The status, content type and headers of a response, set by a route before it returns the body.
+ */
+public final class IngressResponse {
+    private int status = 200;
+    private String type = "text/plain; charset=utf-8";
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    /**
+     * Sets the status code.
+     *
+     * @param status The HTTP status code.
+     */
+    public void status(int status) {
+        this.status = status;
+    }
+
+    /**
+     * Sets the {@code Content-Type} of the body.
+     *
+     * @param type The content type.
+     */
+    public void type(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Sets a response header.
+     *
+     * @param name  The header name.
+     * @param value The header value.
+     */
+    public void header(String name, String value) {
+        headers.put(name, value);
+    }
+
+    /**
+     * Returns the status code to send.
+     *
+     * @return The HTTP status code, 200 unless a route changed it.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the content type of the body.
+     *
+     * @return The {@code Content-Type}, plain UTF-8 text unless a route changed it.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the extra headers set by the route.
+     *
+     * @return The headers, in the order they were set.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.ryuu.github.ingress;
+
+import java.io.IOException;
+
+/**
+ * The HTTP server that receives webhook deliveries and serves the health, metrics and admin endpoints.
+ * <p>
+ * Routes match the request path exactly. The server is configured from an {@link IngressSettings} when it is
+ * created; routes are registered before {@link #start()}.
+ */
+public interface IngressServer {
+
+    /**
+     * Handles one request.
+     */
+    @FunctionalInterface
+    interface Route {
+
+        /**
+         * Handles a request.
+         *
+         * @param request  The request.
+         * @param response The response, whose status, type and headers the route may set.
+         * @return The response body.
+         * @throws Exception If the request cannot be handled; the server answers 500.
+         */
+        String handle(IngressRequest request, IngressResponse response) throws Exception;
+    }
+
+    /**
+     * Registers a route for {@code GET} requests.
+     *
+     * @param path  The request path.
+     * @param route The route.
+     */
+    void get(String path, Route route);
+
+    /**
+     * Registers a route for {@code POST} requests.
+     *
+     * @param path  The request path.
+     * @param route The route.
+     */
+    void post(String path, Route route);
+
+    /**
+     * Starts accepting connections and waits until the server is listening.
+     *
+     * @throws IOException If the server cannot listen on its port.
+     */
+    void start() throws IOException;
+
+    /**
+     * Returns the port the server is bound to, which differs from the configured one when that was 0.
+     *
+     * @return The port the server listens on.
+     */
+    int port();
+
+    /**
+     * Stops accepting connections and waits briefly for requests in progress.
+     */
+    void stop();
+}
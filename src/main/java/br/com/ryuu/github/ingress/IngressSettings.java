@@ -0,0 +1,36 @@
+package br.com.ryuu.github.ingress;
+
+/**
+ * Tuning of the ingress HTTP server.
+ *
+ * @param port                  The port to listen on.
+ * @param virtualThreads        Whether each request runs on its own virtual thread instead of a pooled
+ *                              platform thread.
+ * @param minThreads            The minimum size of the request thread pool.
+ * @param maxThreads            The maximum size of the request thread pool.
+ * @param idleTimeoutSeconds    How long an idle keep-alive connection, or an idle pooled thread, is kept.
+ * @param requestTimeoutSeconds The longest time a request may take to be read or answered; non-positive
+ *                              for no limit.
+ * @param maxConnections        The maximum number of open connections; non-positive for no limit.
+ * @param backlog               The TCP accept backlog; non-positive for the system default.
+ */
+public record IngressSettings(int port, boolean virtualThreads, int minThreads, int maxThreads,
+                              int idleTimeoutSeconds, int requestTimeoutSeconds, int maxConnections, int backlog) {
+
+    /**
+     * Validates the settings.
+     *
+     * @throws IllegalArgumentException If the port or a thread or timeout setting is out of range.
+     */
+    public IngressSettings {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid port: " + port);
+        }
+        if (minThreads <= 0 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Thread pool bounds must be positive and ordered");
+        }
+        if (idleTimeoutSeconds <= 0) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+    }
+}
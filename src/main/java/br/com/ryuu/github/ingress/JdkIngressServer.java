@@ -0,0 +1,237 @@
+package br.com.ryuu.github.ingress;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link IngressServer} on the JDK's built-in {@link HttpServer}.
+ * <p>
+ * With {@link IngressSettings#virtualThreads()} every exchange runs on its own virtual thread, so a request
+ * blocked on the journal or the queue does not hold a platform thread; otherwise exchanges run on a pool of
+ * {@link IngressSettings#maxThreads()} platform threads.
+ * <p>
+ * The idle, request and connection limits are the {@code sun.net.httpserver.*} and
+ * {@code jdk.httpserver.maxConnections} system properties, which the JDK reads once, when the first server of
+ * the JVM is created. They are only set here if they were not given on the command line.
+ */
+public class JdkIngressServer implements IngressServer {
+    private final IngressSettings settings;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a new instance of the {@code JdkIngressServer} class.
+     *
+     * @param settings The server tuning.
+     * @throws NullPointerException If the provided {@code settings} is {@code null}.
+     */
+    public JdkIngressServer(IngressSettings settings) {
+        if (settings == null) {
+            throw new NullPointerException("Ingress settings cannot be null");
+        }
+        this.settings = settings;
+    }
+
+    @Override
+    public void get(String path, Route route) {
+        routes.put("GET " + path, route);
+    }
+
+    @Override
+    public void post(String path, Route route) {
+        routes.put("POST " + path, route);
+    }
+
+    @Override
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+
+        applyLimits();
+        server = HttpServer.create(new InetSocketAddress(settings.port()), Math.max(settings.backlog(), 0));
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @Override
+    public synchronized int port() {
+        return server != null ? server.getAddress().getPort() : settings.port();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+    }
+
+    /**
+     * Sets the JDK server limits that were not given on the command line.
+     */
+    private void applyLimits() {
+        setIfAbsent("sun.net.httpserver.idleInterval", settings.idleTimeoutSeconds());
+        if (settings.requestTimeoutSeconds() > 0) {
+            setIfAbsent("sun.net.httpserver.maxReqTime", settings.requestTimeoutSeconds());
+            setIfAbsent("sun.net.httpserver.maxRspTime", settings.requestTimeoutSeconds());
+        }
+        if (settings.maxConnections() > 0) {
+            setIfAbsent("jdk.httpserver.maxConnections", settings.maxConnections());
+        }
+    }
+
+    private static void setIfAbsent(String property, int value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, Integer.toString(value));
+        }
+    }
+
+    /**
+     * Creates the executor exchanges run on: one virtual thread per exchange, or a bounded platform pool whose
+     * first {@link IngressSettings#minThreads()} threads are started up front and idle threads retire after
+     * {@link IngressSettings#idleTimeoutSeconds()}.
+     *
+     * @return The executor.
+     */
+    private ExecutorService createExecutor() {
+        if (settings.virtualThreads()) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(settings.maxThreads(), settings.maxThreads(),
+                settings.idleTimeoutSeconds(), TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "ingress-" + threadCount.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        for (int i = 0; i < settings.minThreads(); i++) {
+            pool.prestartCoreThread();
+        }
+        return pool;
+    }
+
+    /**
+     * Dispatches an exchange to the route registered for its method and path.
+     * Unknown paths are answered 404, known paths with another method 405, and routes that throw 500.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the response cannot be written.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            Route route = routes.get(exchange.getRequestMethod() + " " + path);
+            IngressResponse response = new IngressResponse();
+            String body;
+
+            if (route == null) {
+                boolean knownPath = routes.keySet().stream().anyMatch(key -> key.endsWith(" " + path));
+                response.status(knownPath ? 405 : 404);
+                body = knownPath ? "Method Not Allowed" : "Not Found";
+            } else {
+                try {
+                    body = route.handle(new JdkRequest(exchange), response);
+                } catch (Exception e) {
+                    System.err.println("Erro ao processar requisição em " + path + ": " + e.getMessage());
+                    e.printStackTrace();
+                    response = new IngressResponse();
+                    response.status(500);
+                    body = "Internal Server Error";
+                }
+            }
+
+            // Write the headers and body; an empty body is sent without a length so nothing is chunked
+            byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", response.getType());
+            response.getHeaders().forEach(exchange.getResponseHeaders()::set);
+            exchange.sendResponseHeaders(response.getStatus(), bytes.length > 0 ? bytes.length : -1);
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adapts an {@link HttpExchange} to an {@link IngressRequest}.
+     */
+    private static final class JdkRequest extends IngressRequest {
+        private final HttpExchange exchange;
+        private Map<String, String> queryParams;
+
+        JdkRequest(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public String header(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public String queryParam(String name) {
+            if (queryParams == null) {
+                queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+            }
+            return queryParams.get(name);
+        }
+
+        @Override
+        protected InputStream rawBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        protected long rawContentLength() {
+            String contentLength = header("Content-Length");
+            if (contentLength == null) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static Map<String, String> parseQuery(String query) {
+            Map<String, String> params = new HashMap<>();
+            if (query == null || query.isEmpty()) {
+                return params;
+            }
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                String key = separator < 0 ? pair : pair.substring(0, separator);
+                String value = separator < 0 ? "" : pair.substring(separator + 1);
+                if (!key.isEmpty()) {
+                    params.putIfAbsent(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                            URLDecoder.decode(value, StandardCharsets.UTF_8));
+                }
+            }
+            return params;
+        }
+    }
+}
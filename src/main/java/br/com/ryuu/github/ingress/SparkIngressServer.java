@@ -0,0 +1,108 @@
+package br.com.ryuu.github.ingress;
+
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link IngressServer} on Spark's embedded Jetty, kept for deployments that depend on its behaviour.
+ * <p>
+ * Requests run on Jetty's platform thread pool of {@link IngressSettings#minThreads()} to
+ * {@link IngressSettings#maxThreads()} threads; {@link IngressSettings#virtualThreads()}, the request timeout
+ * and the connection and backlog limits are not supported by Spark and are ignored.
+ */
+public class SparkIngressServer implements IngressServer {
+    private final IngressSettings settings;
+
+    /**
+     * Constructs a new instance of the {@code SparkIngressServer} class and configures Spark's port and
+     * thread pool.
+     *
+     * @param settings The server tuning.
+     * @throws NullPointerException If the provided {@code settings} is {@code null}.
+     */
+    public SparkIngressServer(IngressSettings settings) {
+        if (settings == null) {
+            throw new NullPointerException("Ingress settings cannot be null");
+        }
+        this.settings = settings;
+
+        if (settings.virtualThreads()) {
+            System.err.println("INGRESS_VIRTUAL_THREADS não é suportado pelo servidor Spark, usando pool de threads");
+        }
+        Spark.port(settings.port());
+        Spark.threadPool(settings.maxThreads(), settings.minThreads(),
+                (int) Math.min(Integer.MAX_VALUE, settings.idleTimeoutSeconds() * 1000L));
+    }
+
+    @Override
+    public void get(String path, Route route) {
+        Spark.get(path, (request, response) -> handle(route, request, response));
+    }
+
+    @Override
+    public void post(String path, Route route) {
+        Spark.post(path, (request, response) -> handle(route, request, response));
+    }
+
+    @Override
+    public void start() {
+        Spark.init();
+        Spark.awaitInitialization();
+    }
+
+    @Override
+    public int port() {
+        return Spark.port();
+    }
+
+    @Override
+    public void stop() {
+        Spark.stop();
+        Spark.awaitStop();
+    }
+
+    private static String handle(Route route, Request request, Response response) throws Exception {
+        IngressResponse ingressResponse = new IngressResponse();
+        String body = route.handle(new SparkRequest(request), ingressResponse);
+
+        response.status(ingressResponse.getStatus());
+        response.type(ingressResponse.getType());
+        ingressResponse.getHeaders().forEach(response::header);
+        return body;
+    }
+
+    /**
+     * Adapts a Spark {@link Request} to an {@link IngressRequest}.
+     */
+    private static final class SparkRequest extends IngressRequest {
+        private final Request request;
+
+        SparkRequest(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public String header(String name) {
+            return request.headers(name);
+        }
+
+        @Override
+        public String queryParam(String name) {
+            return request.queryParams(name);
+        }
+
+        @Override
+        protected InputStream rawBody() throws IOException {
+            return request.raw().getInputStream();
+        }
+
+        @Override
+        protected long rawContentLength() {
+            return request.contentLength();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.ryuu.github.ingress;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request body uses a {@code Content-Encoding} the ingress cannot decode.
+ */
+public class UnsupportedContentEncodingException extends IOException {
+
+    /**
+     * Constructs a new {@code UnsupportedContentEncodingException} for the given encoding.
+     *
+     * @param encoding The value of the {@code Content-Encoding} header.
+     */
+    public UnsupportedContentEncodingException(String encoding) {
+        super("Content-Encoding não suportado: " + encoding);
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.ryuu.github.payload;
+
+/**
+ * Fields extracted from a GitHub "fork" event.
+ *
+ * @param user         The login of the user who forked the repository.
+ * @param originalRepo The full name of the forked repository.
+ * @param forkUrl      The URL of the new fork.
+ * @param forkName     The full name of the new fork.
+ * @param totalForks   The number of forks after the event.
+ */
+public record ForkPayload(String user, String originalRepo, String forkUrl, String forkName, int totalForks) {
+}
@@ -0,0 +1,14 @@
+package br.com.ryuu.github.payload;
+
+/**
+ * Fields extracted from a GitHub "issues" event.
+ *
+ * @param action   The action that triggered the event, e.g. {@code opened} or {@code closed}.
+ * @param repoName The full name of the repository.
+ * @param number   The issue number.
+ * @param title    The issue title.
+ * @param url      The URL of the issue page.
+ * @param user     The login of the user who triggered the event.
+ */
+public record IssuePayload(String action, String repoName, int number, String title, String url, String user) {
+}
@@ -0,0 +1,136 @@
+package br.com.ryuu.github.payload;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled set of JSON paths that drives a single streaming pass over a {@link JsonReader}.
+ * Only the declared paths are visited; every other value is skipped with {@link JsonReader#skipValue()}
+ * so it is never materialised.
+ * <p>
+ * Paths use dots to separate object keys and a {@code []} suffix to address every element of an
+ * array, for example {@code repository.full_name} or {@code commits[]}.
+ */
+public final class JsonPathSelector {
+
+    /**
+     * Receives the value found at one of the declared paths.
+     * Implementations must consume exactly one JSON value from the reader.
+     */
+    @FunctionalInterface
+    public interface FieldSink {
+        void accept(String path, JsonReader reader) throws IOException;
+    }
+
+    private static final class Node {
+        private final String path;
+        private final Map<String, Node> children = new HashMap<>();
+        private Node elements;
+        private boolean leaf;
+
+        private Node(String path) {
+            this.path = path;
+        }
+    }
+
+    private final Node root = new Node("");
+
+    private JsonPathSelector(String... paths) {
+        for (String path : paths) {
+            Node node = root;
+            StringBuilder current = new StringBuilder();
+            for (String segment : path.split("\\.")) {
+                boolean array = segment.endsWith("[]");
+                String name = array ? segment.substring(0, segment.length() - 2) : segment;
+
+                if (current.length() > 0) {
+                    current.append('.');
+                }
+                current.append(name);
+                node = node.children.computeIfAbsent(name, key -> new Node(current.toString()));
+
+                if (array) {
+                    current.append("[]");
+                    if (node.elements == null) {
+                        node.elements = new Node(current.toString());
+                    }
+                    node = node.elements;
+                }
+            }
+            node.leaf = true;
+        }
+    }
+
+    /**
+     * Compiles the given paths into a reusable selector.
+     *
+     * @param paths The paths to select.
+     * @return A new {@code JsonPathSelector} for the given paths.
+     */
+    public static JsonPathSelector compile(String... paths) {
+        return new JsonPathSelector(paths);
+    }
+
+    /**
+     * Reads the next JSON value from the reader, invoking the sink for every declared path found.
+     * {@code null} values at a declared path are consumed without invoking the sink.
+     *
+     * @param reader The reader positioned at the value to select from.
+     * @param sink   The sink that receives the selected values.
+     * @throws IOException If the reader fails or the document is malformed.
+     */
+    public void select(JsonReader reader, FieldSink sink) throws IOException {
+        visit(reader, root, sink);
+    }
+
+    private static void visit(JsonReader reader, Node node, FieldSink sink) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+        } else if (node.leaf) {
+            sink.accept(node.path, reader);
+        } else if (node.elements != null && token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                visit(reader, node.elements, sink);
+            }
+            reader.endArray();
+        } else if (!node.children.isEmpty() && token == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                Node child = node.children.get(reader.nextName());
+                if (child == null) {
+                    reader.skipValue();
+                } else {
+                    visit(reader, child, sink);
+                }
+            }
+            reader.endObject();
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    /**
+     * Reads the next value as a string, accepting numbers and booleans as well.
+     *
+     * @param reader The reader positioned at the value.
+     * @return The value as a string, or {@code null} if the value is JSON {@code null}.
+     * @throws IOException If the value is an object or an array.
+     */
+    public static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,323 @@
+package br.com.ryuu.github.payload;
+
+import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
+import br.com.ryuu.metrics.Histogram;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
+import com.google.gson.stream.JsonReader;
+
+import javax.crypto.Mac;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming extractor for GitHub webhook payloads.
+ * Each event type declares the handful of paths it needs; the payload is read once with a
+ * {@link JsonReader} and everything else is skipped, so no JSON tree is ever built.
+ */
+public final class PayloadExtractor {
+
+    private static final JsonPathSelector PUSH = JsonPathSelector.compile(
+            "ref", "before", "after", "compare", "repository.full_name", "repository.html_url",
+            "pusher.name", "commits[]");
+    private static final JsonPathSelector COMMIT = JsonPathSelector.compile(
+            "id", "message", "url");
+    private static final JsonPathSelector STAR = JsonPathSelector.compile(
+            "action", "sender.login", "repository.full_name", "repository.html_url",
+            "repository.stargazers_count");
+    private static final JsonPathSelector FORK = JsonPathSelector.compile(
+            "sender.login", "repository.full_name", "repository.forks_count",
+            "forkee.html_url", "forkee.full_name");
+    private static final JsonPathSelector RELEASE = JsonPathSelector.compile(
+            "action", "repository.full_name", "release.tag_name", "release.author.login",
+            "release.html_url", "release.body", "release.prerelease");
+    private static final JsonPathSelector PULL_REQUEST = JsonPathSelector.compile(
+            "action", "repository.full_name", "pull_request.number", "pull_request.title",
+            "pull_request.html_url", "sender.login", "pull_request.head.ref", "pull_request.base.ref",
+            "pull_request.merged");
+    private static final JsonPathSelector ISSUE = JsonPathSelector.compile(
+            "action", "repository.full_name", "issue.number", "issue.title", "issue.html_url", "sender.login");
+
+    private static final MetricVec<Histogram> PARSE_DURATION = Metrics.histogramVec("ryuu_stage_duration_seconds",
+            "Time spent in each processing stage", "event", "stage", "parse");
+
+    private PayloadExtractor() {
+    }
+
+    /**
+     * Reads a request body into memory, refusing to read more than {@code maxBytes}.
+     *
+     * @param in            The request body stream.
+     * @param contentLength The declared {@code Content-Length}, or a negative value if unknown.
+     * @param maxBytes      The maximum number of bytes accepted.
+     * @return The body bytes.
+     * @throws PayloadTooLargeException If the declared or actual length exceeds {@code maxBytes}.
+     * @throws IOException              If reading the stream fails.
+     */
+    public static byte[] readBody(InputStream in, long contentLength, int maxBytes) throws IOException {
+        return readBody(in, contentLength, maxBytes, null);
+    }
+
+    /**
+     * Reads a request body into memory, refusing to read more than {@code maxBytes}, and feeds every chunk
+     * to a {@link Mac} as it arrives so the signature is ready without a second pass over the body.
+     *
+     * @param in            The request body stream.
+     * @param contentLength The declared {@code Content-Length}, or a negative value if unknown.
+     * @param maxBytes      The maximum number of bytes accepted.
+     * @param mac           The {@code Mac} to update with the body, or {@code null} for none.
+     * @return The body bytes.
+     * @throws PayloadTooLargeException If the declared or actual length exceeds {@code maxBytes}.
+     * @throws IOException              If reading the stream fails.
+     */
+    public static byte[] readBody(InputStream in, long contentLength, int maxBytes, Mac mac) throws IOException {
+        if (contentLength > maxBytes) {
+            throw new PayloadTooLargeException(maxBytes);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : 8192);
+        byte[] buffer = new byte[8192];
+        int total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new PayloadTooLargeException(maxBytes);
+            }
+            out.write(buffer, 0, read);
+            if (mac != null) {
+                mac.update(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the top-level {@code action} of a payload, stopping as soon as it is found.
+     * GitHub writes {@code action} as the first key, so this usually costs a few bytes of reading.
+     *
+     * @param in The payload stream.
+     * @return The action, or {@code null} if the payload has none.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static String readAction(InputStream in) throws IOException {
+        try (JsonReader reader = open(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("action")) {
+                    return JsonPathSelector.readString(reader);
+                }
+                reader.skipValue();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Extracts the fields of a "push" event.
+     *
+     * @param in The payload stream.
+     * @return The extracted {@link PushPayload}.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static PushPayload readPush(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        String[] fields = new String[7];
+        List<CommitInfo> commits = new ArrayList<>();
+
+        try (JsonReader reader = open(in)) {
+            PUSH.select(reader, (path, value) -> {
+                switch (path) {
+                    case "ref" -> fields[0] = JsonPathSelector.readString(value);
+                    case "compare" -> fields[1] = JsonPathSelector.readString(value);
+                    case "repository.full_name" -> fields[2] = JsonPathSelector.readString(value);
+                    case "pusher.name" -> fields[3] = JsonPathSelector.readString(value);
+                    case "repository.html_url" -> fields[4] = JsonPathSelector.readString(value);
+                    case "before" -> fields[5] = JsonPathSelector.readString(value);
+                    case "after" -> fields[6] = JsonPathSelector.readString(value);
+                    case "commits[]" -> commits.add(readCommit(value));
+                    default -> value.skipValue();
+                }
+            });
+        }
+
+        PARSE_DURATION.labels("push").recordSince(start);
+        return new PushPayload(fields[2], fields[4], fields[3], fields[0], fields[5], fields[6], fields[1], commits);
+    }
+
+    private static CommitInfo readCommit(JsonReader reader) throws IOException {
+        String[] fields = new String[3];
+        COMMIT.select(reader, (path, value) -> {
+            switch (path) {
+                case "id" -> fields[0] = JsonPathSelector.readString(value);
+                case "message" -> fields[1] = JsonPathSelector.readString(value);
+                case "url" -> fields[2] = JsonPathSelector.readString(value);
+                default -> value.skipValue();
+            }
+        });
+        return new CommitInfo(fields[0], fields[1], fields[2]);
+    }
+
+    /**
+     * Extracts the fields of a "star" event.
+     *
+     * @param in The payload stream.
+     * @return The extracted {@link StarPayload}.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static StarPayload readStar(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        String[] fields = new String[4];
+        int[] stars = new int[1];
+
+        try (JsonReader reader = open(in)) {
+            STAR.select(reader, (path, value) -> {
+                switch (path) {
+                    case "action" -> fields[0] = JsonPathSelector.readString(value);
+                    case "sender.login" -> fields[1] = JsonPathSelector.readString(value);
+                    case "repository.full_name" -> fields[2] = JsonPathSelector.readString(value);
+                    case "repository.html_url" -> fields[3] = JsonPathSelector.readString(value);
+                    case "repository.stargazers_count" -> stars[0] = value.nextInt();
+                    default -> value.skipValue();
+                }
+            });
+        }
+
+        PARSE_DURATION.labels("star").recordSince(start);
+        return new StarPayload(fields[0], fields[1], fields[2], fields[3], stars[0]);
+    }
+
+    /**
+     * Extracts the fields of a "fork" event.
+     *
+     * @param in The payload stream.
+     * @return The extracted {@link ForkPayload}.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static ForkPayload readFork(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        String[] fields = new String[4];
+        int[] forks = new int[1];
+
+        try (JsonReader reader = open(in)) {
+            FORK.select(reader, (path, value) -> {
+                switch (path) {
+                    case "sender.login" -> fields[0] = JsonPathSelector.readString(value);
+                    case "repository.full_name" -> fields[1] = JsonPathSelector.readString(value);
+                    case "forkee.html_url" -> fields[2] = JsonPathSelector.readString(value);
+                    case "forkee.full_name" -> fields[3] = JsonPathSelector.readString(value);
+                    case "repository.forks_count" -> forks[0] = value.nextInt();
+                    default -> value.skipValue();
+                }
+            });
+        }
+
+        PARSE_DURATION.labels("fork").recordSince(start);
+        return new ForkPayload(fields[0], fields[1], fields[2], fields[3], forks[0]);
+    }
+
+    /**
+     * Extracts the fields of a "release" event.
+     *
+     * @param in The payload stream.
+     * @return The extracted {@link ReleasePayload}.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static ReleasePayload readRelease(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        String[] fields = new String[6];
+        boolean[] preRelease = new boolean[1];
+
+        try (JsonReader reader = open(in)) {
+            RELEASE.select(reader, (path, value) -> {
+                switch (path) {
+                    case "action" -> fields[0] = JsonPathSelector.readString(value);
+                    case "repository.full_name" -> fields[1] = JsonPathSelector.readString(value);
+                    case "release.tag_name" -> fields[2] = JsonPathSelector.readString(value);
+                    case "release.author.login" -> fields[3] = JsonPathSelector.readString(value);
+                    case "release.html_url" -> fields[4] = JsonPathSelector.readString(value);
+                    case "release.body" -> fields[5] = JsonPathSelector.readString(value);
+                    case "release.prerelease" -> preRelease[0] = value.nextBoolean();
+                    default -> value.skipValue();
+                }
+            });
+        }
+
+        PARSE_DURATION.labels("release").recordSince(start);
+        return new ReleasePayload(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], preRelease[0]);
+    }
+
+    /**
+     * Extracts the fields of a "pull_request" event.
+     *
+     * @param in The payload stream.
+     * @return The extracted {@link PullRequestPayload}.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static PullRequestPayload readPullRequest(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        String[] fields = new String[7];
+        int[] number = new int[1];
+        boolean[] merged = new boolean[1];
+
+        try (JsonReader reader = open(in)) {
+            PULL_REQUEST.select(reader, (path, value) -> {
+                switch (path) {
+                    case "action" -> fields[0] = JsonPathSelector.readString(value);
+                    case "repository.full_name" -> fields[1] = JsonPathSelector.readString(value);
+                    case "pull_request.number" -> number[0] = value.nextInt();
+                    case "pull_request.title" -> fields[2] = JsonPathSelector.readString(value);
+                    case "pull_request.html_url" -> fields[3] = JsonPathSelector.readString(value);
+                    case "sender.login" -> fields[4] = JsonPathSelector.readString(value);
+                    case "pull_request.head.ref" -> fields[5] = JsonPathSelector.readString(value);
+                    case "pull_request.base.ref" -> fields[6] = JsonPathSelector.readString(value);
+                    case "pull_request.merged" -> merged[0] = value.nextBoolean();
+                    default -> value.skipValue();
+                }
+            });
+        }
+
+        PARSE_DURATION.labels("pull_request").recordSince(start);
+        return new PullRequestPayload(fields[0], fields[1], number[0], fields[2], fields[3], fields[4],
+                fields[5], fields[6], merged[0]);
+    }
+
+    /**
+     * Extracts the fields of an "issues" event.
+     *
+     * @param in The payload stream.
+     * @return The extracted {@link IssuePayload}.
+     * @throws IOException If the payload cannot be read or is malformed.
+     */
+    public static IssuePayload readIssue(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        String[] fields = new String[5];
+        int[] number = new int[1];
+
+        try (JsonReader reader = open(in)) {
+            ISSUE.select(reader, (path, value) -> {
+                switch (path) {
+                    case "action" -> fields[0] = JsonPathSelector.readString(value);
+                    case "repository.full_name" -> fields[1] = JsonPathSelector.readString(value);
+                    case "issue.number" -> number[0] = value.nextInt();
+                    case "issue.title" -> fields[2] = JsonPathSelector.readString(value);
+                    case "issue.html_url" -> fields[3] = JsonPathSelector.readString(value);
+                    case "sender.login" -> fields[4] = JsonPathSelector.readString(value);
+                    default -> value.skipValue();
+                }
+            });
+        }
+
+        PARSE_DURATION.labels("issues").recordSince(start);
+        return new IssuePayload(fields[0], fields[1], number[0], fields[2], fields[3], fields[4]);
+    }
+
+    private static JsonReader open(InputStream in) {
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
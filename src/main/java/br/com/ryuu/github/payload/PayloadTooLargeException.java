@@ -0,0 +1,18 @@
+package br.com.ryuu.github.payload;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a webhook body exceeds the configured maximum size.
+ */
+public class PayloadTooLargeException extends IOException {
+
+    /**
+     * Constructs a new {@code PayloadTooLargeException} for the given limit.
+     *
+     * @param maxBytes The maximum number of bytes that was exceeded.
+     */
+    public PayloadTooLargeException(long maxBytes) {
+        super("Payload excede o limite de " + maxBytes + " bytes");
+    }
+}
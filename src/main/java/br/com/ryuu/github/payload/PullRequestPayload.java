@@ -0,0 +1,18 @@
+package br.com.ryuu.github.payload;
+
+/**
+ * Fields extracted from a GitHub "pull_request" event.
+ *
+ * @param action     The action that triggered the event, e.g. {@code opened} or {@code closed}.
+ * @param repoName   The full name of the repository.
+ * @param number     The pull request number.
+ * @param title      The pull request title.
+ * @param url        The URL of the pull request page.
+ * @param user       The login of the user who triggered the event.
+ * @param headBranch The branch the changes come from.
+ * @param baseBranch The branch the changes are merged into.
+ * @param merged     Whether the pull request was merged.
+ */
+public record PullRequestPayload(String action, String repoName, int number, String title, String url,
+                                 String user, String headBranch, String baseBranch, boolean merged) {
+}
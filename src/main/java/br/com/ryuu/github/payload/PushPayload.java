@@ -0,0 +1,30 @@
+package br.com.ryuu.github.payload;
+
+import br.com.ryuu.utils.DiscordEmbedBuilder.CommitInfo;
+
+import java.util.List;
+
+/**
+ * Fields extracted from a GitHub "push" event.
+ *
+ * @param repoName   The full name of the repository ({@code owner/name}).
+ * @param repoUrl    The URL of the repository.
+ * @param pusher     The name of the user who pushed.
+ * @param ref        The full ref that was pushed, e.g. {@code refs/heads/main}.
+ * @param before     The SHA the ref pointed to before the push.
+ * @param after      The SHA the ref points to after the push.
+ * @param compareUrl The URL comparing the commits before and after the push.
+ * @param commits    The commits included in the push.
+ */
+public record PushPayload(String repoName, String repoUrl, String pusher, String ref, String before,
+                          String after, String compareUrl, List<CommitInfo> commits) {
+
+    /**
+     * Returns the branch the push went to.
+     *
+     * @return The branch name, i.e. the ref without the {@code refs/heads/} prefix.
+     */
+    public String branch() {
+        return ref.startsWith("refs/heads/") ? ref.substring("refs/heads/".length()) : ref;
+    }
+}
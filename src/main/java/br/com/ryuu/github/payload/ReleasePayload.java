@@ -0,0 +1,16 @@
+package br.com.ryuu.github.payload;
+
+/**
+ * Fields extracted from a GitHub "release" event.
+ *
+ * @param action       The action that triggered the event, e.g. {@code published}.
+ * @param repoName     The full name of the repository.
+ * @param tagName      The tag of the release.
+ * @param authorName   The login of the release author.
+ * @param releaseUrl   The URL of the release page.
+ * @param description  The release notes, or {@code null} if empty.
+ * @param isPreRelease Whether the release is marked as a pre-release.
+ */
+public record ReleasePayload(String action, String repoName, String tagName, String authorName,
+                             String releaseUrl, String description, boolean isPreRelease) {
+}
@@ -0,0 +1,13 @@
+package br.com.ryuu.github.payload;
+
+/**
+ * Fields extracted from a GitHub "star" event.
+ *
+ * @param action     The action that triggered the event ({@code created} or {@code deleted}).
+ * @param user       The login of the user who starred the repository.
+ * @param repoName   The full name of the repository.
+ * @param repoUrl    The URL of the repository.
+ * @param totalStars The number of stars after the event.
+ */
+public record StarPayload(String action, String user, String repoName, String repoUrl, int totalStars) {
+}
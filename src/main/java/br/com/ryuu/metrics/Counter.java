@@ -0,0 +1,38 @@
+package br.com.ryuu.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a {@link LongAdder}, so concurrent increments never contend on a lock.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void inc() {
+        value.increment();
+    }
+
+    /**
+     * Increments the counter by the given amount.
+     *
+     * @param amount The amount to add; must not be negative.
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Returns the current value of the counter.
+     *
+     * @return The sum of every increment.
+     */
+    public long get() {
+        return value.sum();
+    }
+}
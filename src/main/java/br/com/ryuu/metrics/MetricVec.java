@@ -0,0 +1,45 @@
+package br.com.ryuu.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Family of metrics distinguished by a single label, such as a histogram per event type.
+ * Children are created on first use and cached, so a lookup for a known value does not allocate.
+ * Label values beyond {@link #MAX_CHILDREN} are folded into {@code other} to keep the cardinality bounded.
+ *
+ * @param <T> The metric type, {@link Counter} or {@link Histogram}.
+ */
+public final class MetricVec<T> {
+
+    static final int MAX_CHILDREN = 64;
+
+    private final String labelName;
+    private final Function<String, T> factory;
+    private final Map<String, T> children = new ConcurrentHashMap<>();
+
+    MetricVec(String labelName, Function<String, T> factory) {
+        this.labelName = labelName;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the child metric for a label value, creating it if needed.
+     *
+     * @param value The label value.
+     * @return The metric for that value.
+     */
+    public T labels(String value) {
+        T child = children.get(value);
+        if (child != null) {
+            return child;
+        }
+        String key = children.size() < MAX_CHILDREN ? value : "other";
+        return children.computeIfAbsent(key, ignored -> factory.apply(key));
+    }
+
+    String labelName() {
+        return labelName;
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.ryuu.metrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide metrics registry rendered in the Prometheus text exposition format.
+ * <p>
+ * Metrics are registered once, usually in static fields, and then updated without touching the registry.
+ * Values that components already track themselves are exposed through supplier-backed counters and gauges
+ * that are only read at scrape time.
+ */
+public final class Metrics {
+
+    private record Series(String labels, Object metric) {
+    }
+
+    private record Family(String name, String help, String type, List<Series> series) {
+    }
+
+    private static final Map<String, Family> FAMILIES = new ConcurrentSkipListMap<>();
+    private static final Map<String, Object> BY_KEY = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Registers (or returns the already registered) counter with the given labels.
+     *
+     * @param name   The metric name.
+     * @param help   The help text.
+     * @param labels Alternating label names and values.
+     * @return The {@link Counter}.
+     */
+    public static Counter counter(String name, String help, String... labels) {
+        return register(name, help, "counter", labels(labels), Counter::new);
+    }
+
+    /**
+     * Registers (or returns the already registered) histogram with the given labels.
+     *
+     * @param name   The metric name.
+     * @param help   The help text.
+     * @param labels Alternating label names and values.
+     * @return The {@link Histogram}.
+     */
+    public static Histogram histogram(String name, String help, String... labels) {
+        return register(name, help, "histogram", labels(labels), Histogram::new);
+    }
+
+    /**
+     * Registers a family of counters keyed by one label.
+     *
+     * @param name      The metric name.
+     * @param help      The help text.
+     * @param labelName The name of the varying label.
+     * @return The {@link MetricVec} of counters.
+     */
+    public static MetricVec<Counter> counterVec(String name, String help, String labelName) {
+        return new MetricVec<>(labelName, value -> counter(name, help, labelName, value));
+    }
+
+    /**
+     * Registers a family of histograms keyed by one label, with optional fixed labels.
+     *
+     * @param name        The metric name.
+     * @param help        The help text.
+     * @param labelName   The name of the varying label.
+     * @param fixedLabels Alternating names and values of labels shared by every child.
+     * @return The {@link MetricVec} of histograms.
+     */
+    public static MetricVec<Histogram> histogramVec(String name, String help, String labelName, String... fixedLabels) {
+        return new MetricVec<>(labelName, value -> {
+            String[] labels = new String[fixedLabels.length + 2];
+            System.arraycopy(fixedLabels, 0, labels, 0, fixedLabels.length);
+            labels[fixedLabels.length] = labelName;
+            labels[fixedLabels.length + 1] = value;
+            return histogram(name, help, labels);
+        });
+    }
+
+    /**
+     * Registers a gauge whose value is read from the supplier at scrape time.
+     *
+     * @param name     The metric name.
+     * @param help     The help text.
+     * @param supplier The source of the current value.
+     * @param labels   Alternating label names and values.
+     */
+    public static void gauge(String name, String help, LongSupplier supplier, String... labels) {
+        register(name, help, "gauge", labels(labels), () -> supplier);
+    }
+
+    /**
+     * Registers a counter whose value is read from the supplier at scrape time.
+     * Used for counts that a component already keeps in its own adders.
+     *
+     * @param name     The metric name.
+     * @param help     The help text.
+     * @param supplier The source of the current, monotonically increasing value.
+     * @param labels   Alternating label names and values.
+     */
+    public static void counterFunction(String name, String help, LongSupplier supplier, String... labels) {
+        register(name, help, "counter", labels(labels), () -> supplier);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static synchronized <T> T register(String name, String help, String type, String labels,
+                                               Supplier<T> factory) {
+        String key = name + labels;
+        Object existing = BY_KEY.get(key);
+        if (existing != null) {
+            return (T) existing;
+        }
+
+        Family family = FAMILIES.computeIfAbsent(name, ignored -> new Family(name, help, type, new ArrayList<>()));
+        if (!family.type().equals(type)) {
+            throw new IllegalArgumentException("Métrica " + name + " já registrada como " + family.type());
+        }
+
+        T metric = factory.get();
+        synchronized (family) {
+            family.series().add(new Series(labels, metric));
+        }
+        BY_KEY.put(key, metric);
+        return metric;
+    }
+
+    private static String labels(String... pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        if (pairs.length == 0) {
+            return "";
+        }
+
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(pairs[i]).append("=\"").append(escape(pairs[i + 1])).append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Renders every registered metric in the Prometheus text exposition format.
+     *
+     * @return The scrape body.
+     */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : FAMILIES.values()) {
+            out.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ').append(family.type()).append('\n');
+
+            List<Series> series;
+            synchronized (family) {
+                series = new ArrayList<>(family.series());
+            }
+            for (Series entry : series) {
+                if (entry.metric() instanceof Histogram histogram) {
+                    appendHistogram(out, family.name(), entry.labels(), histogram);
+                } else {
+                    long value = entry.metric() instanceof Counter counter
+                            ? counter.get()
+                            : ((LongSupplier) entry.metric()).getAsLong();
+                    out.append(family.name()).append(entry.labels()).append(' ').append(value).append('\n');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        long[] counts = histogram.bucketCounts();
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String bound = i < Histogram.BOUNDS_SECONDS.length
+                    ? BigDecimal.valueOf(Histogram.BOUNDS_SECONDS[i]).toPlainString()
+                    : "+Inf";
+            out.append(name).append("_bucket").append(prefix).append("le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum").append(labels).append(' ')
+                .append(String.format(Locale.ROOT, "%.9f", histogram.sumNanos() / 1e9)).append('\n');
+        out.append(name).append("_count").append(labels).append(' ').append(cumulative).append('\n');
+    }
+}
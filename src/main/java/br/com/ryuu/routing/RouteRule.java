@@ -0,0 +1,45 @@
+package br.com.ryuu.routing;
+
+import java.util.Set;
+
+/**
+ * A single routing rule as written in the routes file.
+ *
+ * @param repoPattern   The repository pattern ({@code owner/name}); {@code *} matches any sequence of characters.
+ * @param branchPattern The branch pattern; {@code *} alone matches every branch and events without one.
+ * @param eventTypes    The {@code X-GitHub-Event} types the rule applies to; empty means every event.
+ * @param channelIds    The IDs of the Discord text channels that receive matching events.
+ * @param template      The embed template set used for these channels, or {@code null} for the default one.
+ */
+public record RouteRule(String repoPattern, String branchPattern, Set<String> eventTypes, long[] channelIds,
+                        String template) {
+
+    /**
+     * Parses a rule from a line of the routes file:
+     * {@code <repo-pattern> <branch-pattern> <events|*> <channel-id>[,<channel-id>...] [template]}, where events
+     * are separated by commas.
+     *
+     * @param line The line to parse.
+     * @return The parsed {@code RouteRule}.
+     * @throws IllegalArgumentException If the line does not have four or five columns or a channel ID is invalid.
+     */
+    public static RouteRule parse(String line) {
+        String[] columns = line.trim().split("\\s+");
+        if (columns.length != 4 && columns.length != 5) {
+            throw new IllegalArgumentException("Rota inválida, esperado '<repo> <branch> <eventos> <canais> [template]': " + line);
+        }
+
+        Set<String> events = columns[2].equals("*") ? Set.of() : Set.of(columns[2].split(","));
+        String[] channels = columns[3].split(",");
+        long[] channelIds = new long[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            try {
+                channelIds[i] = Long.parseLong(channels[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ID de canal inválido na rota: " + channels[i]);
+            }
+        }
+
+        return new RouteRule(columns[0], columns[1], events, channelIds, columns.length == 5 ? columns[4] : null);
+    }
+}
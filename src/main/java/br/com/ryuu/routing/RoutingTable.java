@@ -0,0 +1,242 @@
+package br.com.ryuu.routing;
+
+import br.com.ryuu.config.ConfigSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Routing index that maps a (repository, branch, event type) triple to the Discord channels that receive it.
+ * <p>
+ * Rules are compiled once: rules with a literal repository go into a hash index, the remaining ones get a
+ * precompiled prefix or regex matcher, and each rule's event types become a bitmask. Every matching rule
+ * contributes its channels. Results are memoised per triple, so the steady-state cost of routing a
+ * delivery does not grow with the number of rules.
+ * <p>
+ * A rule may also name the embed template set its channels use; the binding is per channel.
+ */
+public class RoutingTable {
+
+    private static final long ALL_EVENTS = -1L;
+    private static final long[] NO_CHANNELS = new long[0];
+    private static final int MAX_CACHED_ROUTES = 10_000;
+
+    private interface Matcher {
+        boolean matches(String value);
+    }
+
+    private record CompiledRule(Matcher branch, boolean anyBranch, long eventMask, long[] channelIds) {
+    }
+
+    private record PatternRule(Matcher repo, CompiledRule rule) {
+    }
+
+    private final Map<String, List<CompiledRule>> exactRepos = new HashMap<>();
+    private final List<PatternRule> patternRepos = new ArrayList<>();
+    private final Map<String, Long> eventBits = new HashMap<>();
+    private final long[] defaultChannels;
+    private final Map<String, long[]> cache = new ConcurrentHashMap<>();
+    private final Map<Long, String> channelTemplates = new HashMap<>();
+
+    /**
+     * Compiles the given rules into a routing index.
+     *
+     * @param rules            The rules, in file order.
+     * @param defaultChannelId The channel used when no rule matches, or {@code null} to drop unmatched events.
+     * @throws IllegalArgumentException If the rules reference more than 64 distinct event types or bind
+     *                                  a channel to two different templates.
+     */
+    public RoutingTable(List<RouteRule> rules, Long defaultChannelId) {
+        this.defaultChannels = defaultChannelId != null ? new long[]{defaultChannelId} : NO_CHANNELS;
+
+        for (RouteRule rule : rules) {
+            long mask = rule.eventTypes().isEmpty() ? ALL_EVENTS : 0L;
+            for (String eventType : rule.eventTypes()) {
+                mask |= eventBit(eventType);
+            }
+
+            if (rule.template() != null) {
+                for (long channelId : rule.channelIds()) {
+                    String previous = channelTemplates.putIfAbsent(channelId, rule.template());
+                    if (previous != null && !previous.equals(rule.template())) {
+                        throw new IllegalArgumentException("Canal " + channelId + " associado aos templates "
+                                + previous + " e " + rule.template());
+                    }
+                }
+            }
+
+            boolean anyBranch = rule.branchPattern().equals("*");
+            CompiledRule compiled = new CompiledRule(compile(rule.branchPattern()), anyBranch, mask, rule.channelIds());
+
+            if (rule.repoPattern().indexOf('*') < 0) {
+                exactRepos.computeIfAbsent(rule.repoPattern().toLowerCase(), key -> new ArrayList<>()).add(compiled);
+            } else {
+                patternRepos.add(new PatternRule(compile(rule.repoPattern().toLowerCase()), compiled));
+            }
+        }
+    }
+
+    /**
+     * Loads the rules from a routes file. Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param file             The routes file.
+     * @param defaultChannelId The channel used when no rule matches, or {@code null} to drop unmatched events.
+     * @return The compiled {@code RoutingTable}.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If a line is not a valid rule.
+     */
+    public static RoutingTable load(Path file, Long defaultChannelId) throws IOException {
+        List<RouteRule> rules = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                rules.add(RouteRule.parse(trimmed));
+            }
+        }
+        return new RoutingTable(rules, defaultChannelId);
+    }
+
+    /**
+     * Builds the routing table described by a configuration snapshot: the rules of its routes file, with
+     * CHANNEL_ID as the fallback for events no rule matches. Without a routes file CHANNEL_ID is required and
+     * receives every event.
+     *
+     * @param config The configuration snapshot.
+     * @return The compiled {@code RoutingTable}.
+     * @throws IOException              If the routes file cannot be read.
+     * @throws IllegalArgumentException If the routes file contains an invalid rule.
+     * @throws IllegalStateException    If there is neither a routes file nor a CHANNEL_ID.
+     */
+    public static RoutingTable fromConfig(ConfigSnapshot config) throws IOException {
+        Path routes = config.getRoutesFile();
+        if (!Files.exists(routes)) {
+            if (config.getDefaultChannelId() == null) {
+                throw new IllegalStateException("CHANNEL_ID não encontrado no arquivo .env");
+            }
+            return new RoutingTable(List.of(), config.getDefaultChannelId());
+        }
+        return load(routes, config.getDefaultChannelId());
+    }
+
+    /**
+     * Resolves the channels that should receive an event.
+     *
+     * @param repoName  The full name of the repository.
+     * @param branch    The branch the event refers to, or {@code null} if the event has none.
+     * @param eventType The {@code X-GitHub-Event} type.
+     * @return The IDs of the target channels, without duplicates; empty if the event should be dropped.
+     * The returned array is shared and must not be modified.
+     */
+    public long[] route(String repoName, String branch, String eventType) {
+        String key = repoName + '\0' + (branch == null ? "" : branch) + '\0' + eventType;
+        long[] cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long[] channels = resolve(repoName.toLowerCase(), branch, eventType);
+        if (cache.size() >= MAX_CACHED_ROUTES) {
+            cache.clear();
+        }
+        cache.put(key, channels);
+        return channels;
+    }
+
+    /**
+     * Returns the embed template set bound to a channel.
+     *
+     * @param channelId The ID of the channel.
+     * @return The template set name, or {@code null} if the channel uses the default one.
+     */
+    public String templateFor(long channelId) {
+        return channelTemplates.get(channelId);
+    }
+
+    /**
+     * Returns the names of every template set referenced by the rules.
+     *
+     * @return The distinct template set names.
+     */
+    public Set<String> getTemplateNames() {
+        return Set.copyOf(channelTemplates.values());
+    }
+
+    private long[] resolve(String repoName, String branch, String eventType) {
+        long bit = eventBits.getOrDefault(eventType, 0L);
+        Set<Long> channels = new LinkedHashSet<>();
+
+        List<CompiledRule> exact = exactRepos.get(repoName);
+        if (exact != null) {
+            for (CompiledRule rule : exact) {
+                collect(rule, branch, bit, channels);
+            }
+        }
+        for (PatternRule pattern : patternRepos) {
+            if (pattern.repo().matches(repoName)) {
+                collect(pattern.rule(), branch, bit, channels);
+            }
+        }
+
+        if (channels.isEmpty()) {
+            return defaultChannels;
+        }
+        return channels.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void collect(CompiledRule rule, String branch, long eventBit, Set<Long> channels) {
+        if (rule.eventMask() != ALL_EVENTS && (rule.eventMask() & eventBit) == 0) {
+            return;
+        }
+        if (!rule.anyBranch() && (branch == null || !rule.branch().matches(branch))) {
+            return;
+        }
+        for (long channelId : rule.channelIds()) {
+            channels.add(channelId);
+        }
+    }
+
+    private long eventBit(String eventType) {
+        Long bit = eventBits.get(eventType);
+        if (bit == null) {
+            if (eventBits.size() == Long.SIZE) {
+                throw new IllegalArgumentException("As rotas referenciam mais de 64 tipos de evento");
+            }
+            bit = 1L << eventBits.size();
+            eventBits.put(eventType, bit);
+        }
+        return bit;
+    }
+
+    /**
+     * Compiles a glob into the cheapest matcher that implements it: equality, prefix or regex.
+     */
+    private static Matcher compile(String glob) {
+        int star = glob.indexOf('*');
+        if (star < 0) {
+            return glob::equals;
+        }
+        if (star == glob.length() - 1) {
+            String prefix = glob.substring(0, star);
+            return value -> value.startsWith(prefix);
+        }
+
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        Pattern pattern = Pattern.compile(regex.toString());
+        return value -> pattern.matcher(value).matches();
+    }
+}
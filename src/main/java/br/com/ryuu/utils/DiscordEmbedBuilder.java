@@ -1,22 +1,23 @@
 package br.com.ryuu.utils;
 
-import net.dv8tion.jda.api.EmbedBuilder;
+import br.com.ryuu.github.api.PushDetails;
+import br.com.ryuu.metrics.Histogram;
+import br.com.ryuu.metrics.MetricVec;
+import br.com.ryuu.metrics.Metrics;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 
-import java.awt.*;
-import java.time.Instant;
 import java.util.List;
 
 public class DiscordEmbedBuilder {
 
-    private static final Color COMMIT_COLOR = new Color(46, 160, 67);
-    private static final Color PR_COLOR = new Color(130, 80, 223);
-    private static final Color ISSUE_COLOR = new Color(206, 60, 60);
-    private static final Color STAR_COLOR = new Color(255, 215, 0);
-    private static final Color FORK_COLOR = new Color(35, 103, 255);
+    private static final MetricVec<Histogram> RENDER_DURATION = Metrics.histogramVec("ryuu_stage_duration_seconds",
+            "Time spent in each processing stage", "event", "stage", "render");
+
+    private static final StringBuilderPool COMMIT_BUFFERS = new StringBuilderPool(
+            Runtime.getRuntime().availableProcessors() * 2, 1024, 2 * MessageEmbed.VALUE_MAX_LENGTH);
 
     /**
-     * Creates a Discord embed message for a GitHub push event.
+     * Creates a Discord embed message for a GitHub push event using the default templates.
      *
      * @param author     The name of the author who made the push.
      * @param commits    A list of {@link CommitInfo} objects representing the commits made in the push.
@@ -27,36 +28,89 @@ public class DiscordEmbedBuilder {
      */
     public static MessageEmbed createPushEmbed(String author, List<CommitInfo> commits,
                                                String repoName, String branch, String compareUrl) {
-        EmbedBuilder embed = new EmbedBuilder()
-                .setTitle("Push para " + repoName, compareUrl)
-                .setColor(COMMIT_COLOR)
-                .addField("Autor", author, true)
-                .addField("Branch", branch, true)
-                .addField("Quantidade", commits.size() + " commit(s)", true);
-
-        StringBuilder commitMessages = new StringBuilder();
-        commits.stream()
-                .limit(5)
-                .forEach(commit -> {
-                    commitMessages.append("• [`").append(commit.getId(), 0, 7)
-                            .append("`](").append(commit.getUrl()).append(") ")
-                            .append(truncateMessage(commit.getMessage()))
-                            .append("\n");
-                });
-
-        if (commits.size() > 5) {
-            commitMessages.append("... e mais ").append(commits.size() - 5).append(" commit(s)");
+        return createPushEmbed(EmbedTemplates.defaults(), author, commits, repoName, branch, compareUrl);
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub push event.
+     *
+     * @param templates  The template set to render with.
+     * @param author     The name of the author who made the push.
+     * @param commits    A list of {@link CommitInfo} objects representing the commits made in the push.
+     * @param repoName   The name of the repository where the push occurred.
+     * @param branch     The name of the branch that was pushed.
+     * @param compareUrl The URL to compare the commits between the old and new commit.
+     * @return A {@link MessageEmbed} object containing the formatted push event information.
+     */
+    public static MessageEmbed createPushEmbed(EmbedTemplates templates, String author, List<CommitInfo> commits,
+                                               String repoName, String branch, String compareUrl) {
+        return createPushEmbed(templates, author, commits, repoName, branch, compareUrl, PushDetails.NONE);
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub push event, completed with data from the GitHub API.
+     * The fetched commit list and count replace the ones of the webhook, which carries at most 20 commits.
+     *
+     * @param templates  The template set to render with.
+     * @param author     The name of the author who made the push.
+     * @param commits    A list of {@link CommitInfo} objects representing the commits made in the push.
+     * @param repoName   The name of the repository where the push occurred.
+     * @param branch     The name of the branch that was pushed.
+     * @param compareUrl The URL to compare the commits between the old and new commit.
+     * @param details    The details fetched from the GitHub API; {@link PushDetails#NONE} if there are none.
+     * @return A {@link MessageEmbed} object containing the formatted push event information.
+     */
+    public static MessageEmbed createPushEmbed(EmbedTemplates templates, String author, List<CommitInfo> commits,
+                                               String repoName, String branch, String compareUrl,
+                                               PushDetails details) {
+        long start = System.nanoTime();
+        if (details.commits() != null && details.commits().size() > commits.size()) {
+            commits = details.commits();
+        }
+        int totalCommits = Math.max(commits.size(), details.totalCommits());
+
+        // The commit list is one field, so it is built line by line and stops before crossing the field limit.
+        StringBuilder commitMessages = COMMIT_BUFFERS.acquire();
+        String[] commitValues = new String[EmbedTemplates.COMMIT_SLOTS.length];
+        int shown = Math.min(commits.size(), templates.maxCommits);
+        for (int i = 0; i < shown; i++) {
+            CommitInfo commit = commits.get(i);
+            String id = commit.getId();
+            commitValues[0] = id.length() > 7 ? id.substring(0, 7) : id;
+            commitValues[1] = commit.getUrl();
+            commitValues[2] = truncateMessage(commit.getMessage());
+
+            int mark = commitMessages.length();
+            templates.commitLine.appendTo(commitMessages, commitValues).append('\n');
+            if (commitMessages.length() > MessageEmbed.VALUE_MAX_LENGTH - 64) {
+                commitMessages.setLength(mark);
+                shown = i;
+                break;
+            }
         }
+        if (totalCommits > shown) {
+            templates.moreCommits.appendTo(commitMessages, new String[]{String.valueOf(totalCommits - shown)});
+        }
+
+        String diffStat = details.changedFiles() < 0 ? null : templates.diffStat.render(new String[]{
+                String.valueOf(details.additions()), String.valueOf(details.deletions()),
+                String.valueOf(details.changedFiles())}, MessageEmbed.VALUE_MAX_LENGTH);
+        String pullRequest = details.pullRequestNumber() == 0 ? null : templates.pullRequestLink.render(new String[]{
+                String.valueOf(details.pullRequestNumber()), details.pullRequestTitle(), details.pullRequestUrl()},
+                MessageEmbed.VALUE_MAX_LENGTH);
 
-        embed.addField("Commits", commitMessages.toString(), false)
-                .setFooter("GitHub • Push Event")
-                .setTimestamp(Instant.now());
+        String commitList = commitMessages.toString();
+        COMMIT_BUFFERS.release(commitMessages);
 
-        return embed.build();
+        MessageEmbed embed = templates.push.render(compareUrl, new String[]{
+                repoName, author, branch, String.valueOf(totalCommits), commitList, diffStat, pullRequest});
+
+        RENDER_DURATION.labels("push").recordSince(start);
+        return embed;
     }
 
     /**
-     * Creates a Discord embed message for a GitHub star event.
+     * Creates a Discord embed message for a GitHub star event using the default templates.
      *
      * @param user       The username of the user who starred the repository.
      * @param repoName   The name of the repository that was starred.
@@ -66,18 +120,31 @@ public class DiscordEmbedBuilder {
      */
     public static MessageEmbed createStarEmbed(String user, String repoName,
                                                String repoUrl, int totalStars) {
-        return new EmbedBuilder()
-                .setTitle("⭐ Nova Star em " + repoName, repoUrl)
-                .setColor(STAR_COLOR)
-                .addField("Usuário", user, true)
-                .addField("Total de Stars", String.valueOf(totalStars), true)
-                .setFooter("GitHub • Star Event")
-                .setTimestamp(Instant.now())
-                .build();
+        return createStarEmbed(EmbedTemplates.defaults(), user, repoName, repoUrl, totalStars);
     }
 
     /**
-     * Creates a Discord embed message for a GitHub fork event.
+     * Creates a Discord embed message for a GitHub star event.
+     *
+     * @param templates  The template set to render with.
+     * @param user       The username of the user who starred the repository.
+     * @param repoName   The name of the repository that was starred.
+     * @param repoUrl    The URL of the repository that was starred.
+     * @param totalStars The total number of stars the repository has after this event.
+     * @return A {@link MessageEmbed} object containing the formatted star event information.
+     */
+    public static MessageEmbed createStarEmbed(EmbedTemplates templates, String user, String repoName,
+                                               String repoUrl, int totalStars) {
+        long start = System.nanoTime();
+        MessageEmbed embed = templates.star.render(repoUrl, new String[]{
+                repoName, user, String.valueOf(totalStars)});
+
+        RENDER_DURATION.labels("star").recordSince(start);
+        return embed;
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub fork event using the default templates.
      *
      * @param user         The username of the user who forked the repository.
      * @param originalRepo The name of the original repository that was forked.
@@ -88,19 +155,57 @@ public class DiscordEmbedBuilder {
      */
     public static MessageEmbed createForkEmbed(String user, String originalRepo,
                                                String forkUrl, String forkName, int totalForks) {
-        return new EmbedBuilder()
-                .setTitle("\uD83C\uDF74 Novo Fork de " + originalRepo, forkUrl)
-                .setColor(FORK_COLOR)
-                .addField("Usuário", user, true)
-                .addField("Fork", forkName, true)
-                .addField("Total de Forks", String.valueOf(totalForks), true)
-                .setFooter("GitHub • Fork Event")
-                .setTimestamp(Instant.now())
-                .build();
+        return createForkEmbed(EmbedTemplates.defaults(), user, originalRepo, forkUrl, forkName, totalForks);
     }
 
     /**
-     * Creates a Discord embed message for a GitHub release event.
+     * Creates a Discord embed message for a GitHub fork event.
+     *
+     * @param templates    The template set to render with.
+     * @param user         The username of the user who forked the repository.
+     * @param originalRepo The name of the original repository that was forked.
+     * @param forkUrl      The URL of the newly created fork.
+     * @param forkName     The name of the newly created fork.
+     * @param totalForks   The total number of forks the original repository has after this event.
+     * @return A {@link MessageEmbed} object containing the formatted fork event information.
+     */
+    public static MessageEmbed createForkEmbed(EmbedTemplates templates, String user, String originalRepo,
+                                               String forkUrl, String forkName, int totalForks) {
+        long start = System.nanoTime();
+        MessageEmbed embed = templates.fork.render(forkUrl, new String[]{
+                originalRepo, user, forkName, String.valueOf(totalForks)});
+
+        RENDER_DURATION.labels("fork").recordSince(start);
+        return embed;
+    }
+
+    /**
+     * Creates the aggregated star and fork activity embed of a repository.
+     *
+     * @param templates   The template set to render with.
+     * @param repoName    The name of the repository.
+     * @param repoUrl     The URL of the repository.
+     * @param stars       The number of new stars in the current window.
+     * @param forks       The number of new forks in the current window.
+     * @param totalStars  The latest known total of stars.
+     * @param totalForks  The latest known total of forks.
+     * @param recentUsers The users who starred or forked most recently, newest first.
+     * @return A {@link MessageEmbed} object containing the formatted activity summary.
+     */
+    public static MessageEmbed createActivityEmbed(EmbedTemplates templates, String repoName, String repoUrl,
+                                                   long stars, long forks, String totalStars, String totalForks,
+                                                   List<String> recentUsers) {
+        long start = System.nanoTime();
+        MessageEmbed embed = templates.activity.render(repoUrl, new String[]{
+                repoName, String.valueOf(stars), String.valueOf(forks), totalStars, totalForks,
+                String.join(", ", recentUsers)});
+
+        RENDER_DURATION.labels("activity").recordSince(start);
+        return embed;
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub release event using the default templates.
      *
      * @param repoName     The name of the repository where the release was created.
      * @param tagName      The tag name or version number of the release.
@@ -113,18 +218,117 @@ public class DiscordEmbedBuilder {
     public static MessageEmbed createReleaseEmbed(String repoName, String tagName,
                                                   String authorName, String releaseUrl,
                                                   String description, boolean isPreRelease) {
-        Color releaseColor = isPreRelease ? new Color(255, 165, 0) : new Color(0, 150, 255);
+        return createReleaseEmbed(EmbedTemplates.defaults(), repoName, tagName, authorName, releaseUrl,
+                description, isPreRelease);
+    }
 
-        return new EmbedBuilder()
-                .setTitle("\uD83D\uDCE6 Nova " + (isPreRelease ? "Pre-Release" : "Release") +
-                        " em " + repoName, releaseUrl)
-                .setColor(releaseColor)
-                .addField("Versão", tagName, true)
-                .addField("Autor", authorName, true)
-                .addField("Descrição", truncateMessage(description), false)
-                .setFooter("GitHub • Release Event")
-                .setTimestamp(Instant.now())
-                .build();
+    /**
+     * Creates a Discord embed message for a GitHub release event.
+     *
+     * @param templates    The template set to render with.
+     * @param repoName     The name of the repository where the release was created.
+     * @param tagName      The tag name or version number of the release.
+     * @param authorName   The name of the author who created the release.
+     * @param releaseUrl   The URL of the GitHub release page.
+     * @param description  The description or changelog of the release.
+     * @param isPreRelease A boolean indicating whether this is a pre-release (true) or a full release (false).
+     * @return A {@link MessageEmbed} object containing the formatted release event information.
+     */
+    public static MessageEmbed createReleaseEmbed(EmbedTemplates templates, String repoName, String tagName,
+                                                  String authorName, String releaseUrl,
+                                                  String description, boolean isPreRelease) {
+        long start = System.nanoTime();
+        EmbedTemplate template = isPreRelease ? templates.preRelease : templates.release;
+        MessageEmbed embed = template.render(releaseUrl, new String[]{
+                repoName, tagName, authorName,
+                description == null ? templates.emptyDescription : truncateMessage(description)});
+
+        RENDER_DURATION.labels("release").recordSince(start);
+        return embed;
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub pull request event using the default templates.
+     *
+     * @param repoName   The name of the repository the pull request belongs to.
+     * @param number     The pull request number.
+     * @param title      The pull request title.
+     * @param url        The URL of the pull request page.
+     * @param user       The username of the user who triggered the event.
+     * @param headBranch The branch the changes come from.
+     * @param baseBranch The branch the changes are merged into.
+     * @param status     The action of the event, or {@code merged} for merged pull requests.
+     * @return A {@link MessageEmbed} object containing the formatted pull request event information.
+     */
+    public static MessageEmbed createPullRequestEmbed(String repoName, int number, String title, String url,
+                                                      String user, String headBranch, String baseBranch,
+                                                      String status) {
+        return createPullRequestEmbed(EmbedTemplates.defaults(), repoName, number, title, url, user,
+                headBranch, baseBranch, status);
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub pull request event.
+     *
+     * @param templates  The template set to render with.
+     * @param repoName   The name of the repository the pull request belongs to.
+     * @param number     The pull request number.
+     * @param title      The pull request title.
+     * @param url        The URL of the pull request page.
+     * @param user       The username of the user who triggered the event.
+     * @param headBranch The branch the changes come from.
+     * @param baseBranch The branch the changes are merged into.
+     * @param status     The action of the event, or {@code merged} for merged pull requests.
+     * @return A {@link MessageEmbed} object containing the formatted pull request event information.
+     */
+    public static MessageEmbed createPullRequestEmbed(EmbedTemplates templates, String repoName, int number,
+                                                      String title, String url, String user, String headBranch,
+                                                      String baseBranch, String status) {
+        long start = System.nanoTime();
+        MessageEmbed embed = templates.pullRequest.render(url, new String[]{
+                repoName, String.valueOf(number), templates.status("pull_request", status), title, user,
+                headBranch, baseBranch});
+
+        RENDER_DURATION.labels("pull_request").recordSince(start);
+        return embed;
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub issues event using the default templates.
+     *
+     * @param repoName The name of the repository the issue belongs to.
+     * @param number   The issue number.
+     * @param title    The issue title.
+     * @param url      The URL of the issue page.
+     * @param user     The username of the user who triggered the event.
+     * @param status   The action of the event.
+     * @return A {@link MessageEmbed} object containing the formatted issue event information.
+     */
+    public static MessageEmbed createIssueEmbed(String repoName, int number, String title, String url,
+                                                String user, String status) {
+        return createIssueEmbed(EmbedTemplates.defaults(), repoName, number, title, url, user, status);
+    }
+
+    /**
+     * Creates a Discord embed message for a GitHub issues event.
+     *
+     * @param templates The template set to render with.
+     * @param repoName  The name of the repository the issue belongs to.
+     * @param number    The issue number.
+     * @param title     The issue title.
+     * @param url       The URL of the issue page.
+     * @param user      The username of the user who triggered the event.
+     * @param status    The action of the event.
+     * @return A {@link MessageEmbed} object containing the formatted issue event information.
+     */
+    public static MessageEmbed createIssueEmbed(EmbedTemplates templates, String repoName, int number,
+                                                String title, String url, String user, String status) {
+        long start = System.nanoTime();
+        MessageEmbed embed = templates.issue.render(url, new String[]{
+                repoName, String.valueOf(number), templates.status("issues", status), title, user});
+
+        RENDER_DURATION.labels("issues").recordSince(start);
+        return embed;
     }
 
     /**
@@ -186,9 +390,16 @@ public class DiscordEmbedBuilder {
      * - The first line of the input message, trimmed and truncated to 100 characters if necessary
      * (with "..." appended if truncated)
      */
-    private static String truncateMessage(String message) {
+    static String truncateMessage(String message) {
         if (message == null) return "Sem descrição";
-        String firstLine = message.split("\n")[0].trim();
-        return firstLine.length() > 100 ? firstLine.substring(0, 97) + "..." : firstLine;
+
+        int end = message.indexOf('\n');
+        if (end < 0) end = message.length();
+        int begin = 0;
+        while (begin < end && Character.isWhitespace(message.charAt(begin))) begin++;
+        while (end > begin && Character.isWhitespace(message.charAt(end - 1))) end--;
+
+        if (end - begin > 100) return message.substring(begin, begin + 97) + "...";
+        return begin == 0 && end == message.length() ? message : message.substring(begin, end);
     }
-}
\ No newline at end of file
+}
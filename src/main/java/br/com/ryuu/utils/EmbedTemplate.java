@@ -0,0 +1,216 @@
+package br.com.ryuu.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compiled layout of one embed type: title, color, fields and footer.
+ * <p>
+ * Texts are split once into literal parts and numbered slots; rendering only appends the literals and the
+ * slot values of the current event into a buffer borrowed from a shared {@link StringBuilderPool}. Every text is clipped to Discord's
+ * limit for its position and the whole embed is kept within {@link MessageEmbed#EMBED_MAX_LENGTH_BOT}.
+ * Fields marked {@code optional} are left out when their value renders empty.
+ */
+public final class EmbedTemplate {
+
+    /**
+     * A text with placeholders, compiled against a fixed list of slot names.
+     */
+    public static final class Text {
+        private static final StringBuilderPool BUFFERS = new StringBuilderPool(
+                Runtime.getRuntime().availableProcessors() * 2, 256, 8192);
+
+        private final String[] literals;
+        private final int[] slots;
+
+        private Text(String[] literals, int[] slots) {
+            this.literals = literals;
+            this.slots = slots;
+        }
+
+        /**
+         * Compiles a text such as {@code "Push para {repo}"}.
+         *
+         * @param source    The text with {@code {name}} placeholders.
+         * @param slotNames The placeholder names available, in the order their values are passed to render.
+         * @return The compiled {@code Text}.
+         * @throws IllegalArgumentException If the text uses an unknown placeholder or has an unclosed brace.
+         */
+        public static Text compile(String source, String... slotNames) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+
+            int position = 0;
+            int open;
+            while ((open = source.indexOf('{', position)) >= 0) {
+                int close = source.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Chave não fechada no template: " + source);
+                }
+                String name = source.substring(open + 1, close);
+                int slot = indexOf(slotNames, name);
+                if (slot < 0) {
+                    throw new IllegalArgumentException("Placeholder desconhecido {" + name + "} no template: " + source);
+                }
+                literals.add(source.substring(position, open));
+                slots.add(slot);
+                position = close + 1;
+            }
+            literals.add(source.substring(position));
+
+            return new Text(literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        /**
+         * Appends the text to the builder, filling the placeholders with the given values.
+         *
+         * @param out    The builder to append to.
+         * @param values The slot values; {@code null} values are rendered as empty.
+         * @return The same builder.
+         */
+        public StringBuilder appendTo(StringBuilder out, String[] values) {
+            for (int i = 0; i < slots.length; i++) {
+                out.append(literals[i]);
+                String value = values[slots[i]];
+                if (value != null) {
+                    out.append(value);
+                }
+            }
+            return out.append(literals[slots.length]);
+        }
+
+        /**
+         * Renders the text, clipping it to {@code maxLength} characters with a trailing "...".
+         *
+         * @param values    The slot values.
+         * @param maxLength The maximum length of the result.
+         * @return The rendered text.
+         */
+        public String render(String[] values, int maxLength) {
+            StringBuilder out = BUFFERS.acquire();
+            try {
+                appendTo(out, values);
+                if (out.length() > maxLength) {
+                    out.setLength(Math.max(0, maxLength - 3));
+                    out.append("...");
+                }
+                return out.toString();
+            } finally {
+                BUFFERS.release(out);
+            }
+        }
+
+        private static int indexOf(String[] names, String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private record Field(String name, Text value, boolean inline, boolean optional) {
+    }
+
+    private final Text title;
+    private final Color color;
+    private final List<Field> fields;
+    private final String footer;
+
+    private EmbedTemplate(Text title, Color color, List<Field> fields, String footer) {
+        this.title = title;
+        this.color = color;
+        this.fields = fields;
+        this.footer = footer;
+    }
+
+    /**
+     * Compiles the template of one embed type from the {@code <type>.*} keys of a template set.
+     *
+     * @param properties The template set.
+     * @param type       The embed type, e.g. {@code push}.
+     * @param slotNames  The placeholders available to this embed type.
+     * @return The compiled {@code EmbedTemplate}.
+     * @throws IllegalArgumentException If a required key is missing or a value is invalid.
+     */
+    public static EmbedTemplate compile(Properties properties, String type, String... slotNames) {
+        Text title = Text.compile(require(properties, type + ".title"), slotNames);
+        Color color = Color.decode(require(properties, type + ".color"));
+
+        List<Field> fields = new ArrayList<>();
+        for (int i = 1; properties.getProperty(type + ".field." + i + ".name") != null; i++) {
+            String prefix = type + ".field." + i;
+            fields.add(new Field(
+                    clip(properties.getProperty(prefix + ".name"), MessageEmbed.TITLE_MAX_LENGTH),
+                    Text.compile(require(properties, prefix + ".value"), slotNames),
+                    Boolean.parseBoolean(properties.getProperty(prefix + ".inline", "false")),
+                    Boolean.parseBoolean(properties.getProperty(prefix + ".optional", "false"))));
+        }
+        if (fields.size() > MessageEmbed.MAX_FIELD_AMOUNT) {
+            throw new IllegalArgumentException("Template " + type + " excede " + MessageEmbed.MAX_FIELD_AMOUNT + " campos");
+        }
+
+        String footer = properties.getProperty(type + ".footer");
+        return new EmbedTemplate(title, color, List.copyOf(fields),
+                footer == null ? null : clip(footer, MessageEmbed.TEXT_MAX_LENGTH));
+    }
+
+    /**
+     * Renders the embed for one event.
+     *
+     * @param url    The URL the title links to, or {@code null} for none.
+     * @param values The slot values, in the order of the slot names used to compile the template.
+     * @return The rendered {@link MessageEmbed}.
+     */
+    public MessageEmbed render(String url, String[] values) {
+        int budget = MessageEmbed.EMBED_MAX_LENGTH_BOT;
+        EmbedBuilder embed = new EmbedBuilder();
+
+        if (footer != null) {
+            embed.setFooter(footer);
+            budget -= footer.length();
+        }
+
+        String renderedTitle = title.render(values, Math.min(MessageEmbed.TITLE_MAX_LENGTH, budget));
+        embed.setTitle(renderedTitle, url).setColor(color);
+        budget -= renderedTitle.length();
+
+        for (Field field : fields) {
+            budget -= field.name().length();
+            if (budget <= 0) {
+                break;
+            }
+            String value = field.value().render(values, Math.min(MessageEmbed.VALUE_MAX_LENGTH, budget));
+            if (value.isEmpty()) {
+                if (field.optional()) {
+                    budget += field.name().length();
+                    continue;
+                }
+                value = EmbedBuilder.ZERO_WIDTH_SPACE;
+            }
+            embed.addField(field.name(), value, field.inline());
+            budget -= value.length();
+        }
+
+        return embed.setTimestamp(Instant.now()).build();
+    }
+
+    private static String require(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Chave obrigatória ausente no template: " + key);
+        }
+        return value;
+    }
+
+    private static String clip(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength - 3) + "..." : value;
+    }
+}
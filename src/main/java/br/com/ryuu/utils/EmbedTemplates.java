@@ -0,0 +1,151 @@
+package br.com.ryuu.utils;
+
+import br.com.ryuu.config.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled set of embed templates, one per embed type.
+ * <p>
+ * The default set ships as {@code templates/default.properties}. Named sets are read from
+ * {@code TEMPLATES_DIR/<name>.properties}, override only the keys they define and are compiled once,
+ * on first use.
+ */
+public final class EmbedTemplates {
+
+    static final String[] PUSH_SLOTS = {"repo", "author", "branch", "count", "commits", "diffstat", "pullRequest"};
+    static final String[] DIFF_STAT_SLOTS = {"additions", "deletions", "files"};
+    static final String[] PULL_REQUEST_LINK_SLOTS = {"number", "title", "url"};
+    static final String[] COMMIT_SLOTS = {"sha", "url", "message"};
+    static final String[] MORE_SLOTS = {"remaining"};
+    static final String[] STAR_SLOTS = {"repo", "user", "stars"};
+    static final String[] FORK_SLOTS = {"repo", "user", "fork", "forks"};
+    static final String[] ACTIVITY_SLOTS = {"repo", "stars", "forks", "totalStars", "totalForks", "users"};
+    static final String[] RELEASE_SLOTS = {"repo", "tag", "author", "description"};
+    static final String[] PULL_REQUEST_SLOTS = {"repo", "number", "status", "title", "user", "head", "base"};
+    static final String[] ISSUE_SLOTS = {"repo", "number", "status", "title", "user"};
+
+    private static final String DEFAULT_NAME = "default";
+    private static final Properties DEFAULT_PROPERTIES = loadDefaults();
+    private static final EmbedTemplates DEFAULTS = new EmbedTemplates(DEFAULT_NAME, DEFAULT_PROPERTIES);
+    private static final Map<String, EmbedTemplates> NAMED = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Properties properties;
+    final EmbedTemplate push;
+    final EmbedTemplate.Text commitLine;
+    final EmbedTemplate.Text moreCommits;
+    final int maxCommits;
+    final EmbedTemplate.Text diffStat;
+    final EmbedTemplate.Text pullRequestLink;
+    final EmbedTemplate star;
+    final EmbedTemplate fork;
+    final EmbedTemplate activity;
+    final EmbedTemplate release;
+    final EmbedTemplate preRelease;
+    final String emptyDescription;
+    final EmbedTemplate pullRequest;
+    final EmbedTemplate issue;
+
+    private EmbedTemplates(String name, Properties properties) {
+        this.name = name;
+        this.properties = properties;
+        this.push = EmbedTemplate.compile(properties, "push", PUSH_SLOTS);
+        this.commitLine = EmbedTemplate.Text.compile(properties.getProperty("push.commit"), COMMIT_SLOTS);
+        this.moreCommits = EmbedTemplate.Text.compile(properties.getProperty("push.more"), MORE_SLOTS);
+        this.maxCommits = Integer.parseInt(properties.getProperty("push.maxCommits"));
+        this.diffStat = EmbedTemplate.Text.compile(properties.getProperty("push.diffStat"), DIFF_STAT_SLOTS);
+        this.pullRequestLink = EmbedTemplate.Text.compile(properties.getProperty("push.pullRequest"),
+                PULL_REQUEST_LINK_SLOTS);
+        this.star = EmbedTemplate.compile(properties, "star", STAR_SLOTS);
+        this.fork = EmbedTemplate.compile(properties, "fork", FORK_SLOTS);
+        this.activity = EmbedTemplate.compile(properties, "activity", ACTIVITY_SLOTS);
+        this.release = EmbedTemplate.compile(properties, "release", RELEASE_SLOTS);
+        this.preRelease = EmbedTemplate.compile(properties, "prerelease", RELEASE_SLOTS);
+        this.emptyDescription = properties.getProperty("release.emptyDescription");
+        this.pullRequest = EmbedTemplate.compile(properties, "pull_request", PULL_REQUEST_SLOTS);
+        this.issue = EmbedTemplate.compile(properties, "issues", ISSUE_SLOTS);
+    }
+
+    /**
+     * Returns the built-in template set.
+     *
+     * @return The default {@code EmbedTemplates}.
+     */
+    public static EmbedTemplates defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns the template set with the given name, compiling it on first use.
+     *
+     * @param name The template set name, or {@code null} for the default set.
+     * @return The compiled {@code EmbedTemplates}.
+     * @throws IllegalArgumentException If the template file does not exist or is invalid.
+     * @throws UncheckedIOException     If the template file cannot be read.
+     */
+    public static EmbedTemplates named(String name) {
+        if (name == null || name.equals(DEFAULT_NAME)) {
+            return DEFAULTS;
+        }
+        return NAMED.computeIfAbsent(name, EmbedTemplates::load);
+    }
+
+    /**
+     * Retrieves the name of this template set.
+     *
+     * @return The template set name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the word shown for an action, from the {@code <type>.status.<action>} keys.
+     *
+     * @param type   The embed type, e.g. {@code issues}.
+     * @param action The payload action.
+     * @return The configured word, or the action itself if none is configured.
+     */
+    String status(String type, String action) {
+        return properties.getProperty(type + ".status." + action, action);
+    }
+
+    private static EmbedTemplates load(String name) {
+        Path file = Path.of(Config.get("TEMPLATES_DIR", "templates")).resolve(name + ".properties");
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Template não encontrado: " + file);
+        }
+
+        Properties properties = new Properties(DEFAULT_PROPERTIES);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler template " + file, e);
+        }
+        return new EmbedTemplates(name, properties);
+    }
+
+    private static Properties loadDefaults() {
+        Properties properties = new Properties();
+        try (InputStream in = EmbedTemplates.class.getResourceAsStream("/templates/default.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("templates/default.properties não encontrado no classpath");
+            }
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.ryuu.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A small bounded pool of {@link StringBuilder}s shared by every thread.
+ * <p>
+ * Rendering runs on queue workers, ingress virtual threads and HTTP client completion threads alike, so a
+ * per-thread buffer would be thrown away with most of those threads. Builders are borrowed for one render and
+ * given back; when the pool is empty a new one is allocated, and builders that grew past the retained capacity
+ * are dropped instead of being kept.
+ */
+public final class StringBuilderPool {
+    private final ArrayBlockingQueue<StringBuilder> idle;
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    /**
+     * Constructs a new pool.
+     *
+     * @param size                The maximum number of idle builders kept.
+     * @param initialCapacity     The capacity of newly allocated builders.
+     * @param maxRetainedCapacity The largest capacity a builder may have to be given back to the pool.
+     */
+    public StringBuilderPool(int size, int initialCapacity, int maxRetainedCapacity) {
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * Borrows an empty builder.
+     *
+     * @return A builder of length zero, to be returned with {@link #release(StringBuilder)}.
+     */
+    public StringBuilder acquire() {
+        StringBuilder builder = idle.poll();
+        return builder != null ? builder : new StringBuilder(initialCapacity);
+    }
+
+    /**
+     * Gives a builder back; it must not be used afterwards.
+     *
+     * @param builder The builder returned by {@link #acquire()}.
+     */
+    public void release(StringBuilder builder) {
+        if (builder.capacity() <= maxRetainedCapacity) {
+            builder.setLength(0);
+            idle.offer(builder);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.ryuu.github;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysExactlyTheUnacknowledgedDeliveries() throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (DeliveryJournal journal = new DeliveryJournal(directory, 1 << 20)) {
+            for (int i = 0; i < 10; i++) {
+                WebhookDelivery delivery = journal.append(delivery("delivery-" + i)).join();
+                if (i % 2 == 0) {
+                    journal.acknowledge(delivery.sequence());
+                } else {
+                    expected.add(delivery.deliveryId());
+                }
+            }
+        }
+
+        List<WebhookDelivery> recovered = reopen();
+        assertEquals(expected, deliveryIds(recovered));
+        WebhookDelivery first = recovered.get(0);
+        assertEquals("push", first.eventType());
+        assertArrayEquals(body("delivery-1"), first.body());
+    }
+
+    @Test
+    void recoveryStopsCleanlyAtATruncatedRecord() throws IOException {
+        try (DeliveryJournal journal = new DeliveryJournal(directory, 1 << 20)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(delivery("delivery-" + i)).join();
+            }
+        }
+
+        // Cut the last record short, as a crash in the middle of a write would
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        assertEquals(List.of("delivery-0", "delivery-1"), deliveryIds(reopen()));
+
+        // The journal stays writable and the truncated tail does not come back
+        try (DeliveryJournal journal = new DeliveryJournal(directory, 1 << 20)) {
+            journal.takeRecovered();
+            journal.append(delivery("delivery-3")).join();
+        }
+        assertEquals(List.of("delivery-0", "delivery-1", "delivery-3"), deliveryIds(reopen()));
+    }
+
+    @Test
+    void recoveryStopsAtARecordWithABadChecksum() throws IOException {
+        try (DeliveryJournal journal = new DeliveryJournal(directory, 1 << 20)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(delivery("delivery-" + i)).join();
+            }
+        }
+
+        // Flip the last byte of the body of the last record, just before its CRC
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 5] ^= 0x7F;
+        Files.write(segment, bytes);
+
+        assertEquals(List.of("delivery-0", "delivery-1"), deliveryIds(reopen()));
+    }
+
+    @Test
+    void rotationsNeitherLoseNorDuplicateRecords() throws IOException {
+        List<String> expected = new ArrayList<>();
+        int maxSegments = 0;
+        try (DeliveryJournal journal = new DeliveryJournal(directory, 4096)) {
+            List<WebhookDelivery> unacknowledged = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                WebhookDelivery delivery = journal.append(delivery("delivery-" + i)).join();
+                unacknowledged.add(delivery);
+
+                // Acknowledge most deliveries a little later, keeping every seventh one pending
+                if (unacknowledged.size() > 20) {
+                    WebhookDelivery oldest = unacknowledged.remove(0);
+                    if (oldest.sequence() % 7 == 0) {
+                        expected.add(oldest.deliveryId());
+                    } else {
+                        journal.acknowledge(oldest.sequence());
+                    }
+                }
+                maxSegments = Math.max(maxSegments, segments().size());
+            }
+            unacknowledged.forEach(delivery -> expected.add(delivery.deliveryId()));
+        }
+
+        assertTrue(maxSegments > 1, "the journal never rotated");
+        assertEquals(expected, deliveryIds(reopen()));
+
+        // Reopening twice must not duplicate what the first reopen rewrote
+        assertEquals(expected, deliveryIds(reopen()));
+    }
+
+    private List<WebhookDelivery> reopen() throws IOException {
+        try (DeliveryJournal journal = new DeliveryJournal(directory, 1 << 20)) {
+            return journal.takeRecovered();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static WebhookDelivery delivery(String deliveryId) {
+        return new WebhookDelivery(deliveryId, "push", body(deliveryId), System.nanoTime());
+    }
+
+    private static byte[] body(String deliveryId) {
+        return ("{\"delivery\":\"" + deliveryId + "\",\"padding\":\"" + "x".repeat(200) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> deliveryIds(List<WebhookDelivery> deliveries) {
+        return deliveries.stream().map(WebhookDelivery::deliveryId).toList();
+    }
+}